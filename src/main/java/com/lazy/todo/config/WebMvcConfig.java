@@ -0,0 +1,35 @@
+package com.lazy.todo.config;
+
+import com.lazy.todo.security.jwt.VerifiedJwt;
+import com.lazy.todo.security.jwt.VerifiedJwtArgumentResolver;
+import io.swagger.v3.oas.annotations.OpenAPIDefinition;
+import io.swagger.v3.oas.annotations.enums.SecuritySchemeType;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.security.SecurityScheme;
+import org.springdoc.core.SpringDocUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+//registers the resolver that hands the already-verified JWT to controller methods
+@Configuration
+@OpenAPIDefinition(security = @SecurityRequirement(name = "bearerAuth"))
+@SecurityScheme(name = "bearerAuth", type = SecuritySchemeType.HTTP, scheme = "bearer", bearerFormat = "JWT")
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    static {
+        //the verified JWT comes from the Authorization header (see bearerAuth above), not a request parameter
+        SpringDocUtils.getConfig().addRequestWrapperToIgnore(VerifiedJwt.class);
+    }
+
+    @Autowired
+    VerifiedJwtArgumentResolver verifiedJwtArgumentResolver;
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(verifiedJwtArgumentResolver);
+    }
+}
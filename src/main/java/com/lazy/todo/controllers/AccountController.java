@@ -1,15 +1,21 @@
 package com.lazy.todo.controllers;
 
+import com.lazy.todo.exceptions.InvalidStatsRangeException;
+import com.lazy.todo.payload.response.MessageResponse;
 import com.lazy.todo.repository.UserRepository;
-import com.lazy.todo.security.jwt.JwtUtils;
+import com.lazy.todo.security.jwt.VerifiedJwt;
 import com.lazy.todo.security.services.UserService;
+import com.lazy.todo.services.CompletionStatsService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+
 @CrossOrigin(origins = "*", maxAge = 3600)
 @RestController
 @RequestMapping("/api/account")
@@ -19,14 +25,12 @@ public class AccountController {
     UserService userService;
 
     @Autowired
-    JwtUtils jwtUtils;
+    CompletionStatsService completionStatsService;
 
     @DeleteMapping
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<?> deleteAccount (@RequestHeader(name = "Authorization") String token) {
-        //remove "bearer:" from the authorization token, leaving just the actual token
-        String jwt = token.substring(7);
-        if (jwtUtils.validateJwtToken(jwt) && jwt != null) {
+    public ResponseEntity<?> deleteAccount (VerifiedJwt jwt) {
+        if (jwt != null) {
             try {
                 return ResponseEntity.ok(userService.deleteUser(jwt));
             } catch (UsernameNotFoundException e) {
@@ -37,10 +41,9 @@ public class AccountController {
     }
     @PutMapping("/email/{email}")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<?> changeEmail(@RequestHeader(name = "Authorization") String token,
+    public ResponseEntity<?> changeEmail(VerifiedJwt jwt,
                                          @PathVariable(name = "email") String email) {
-        String jwt = token.substring(7);
-        if (jwtUtils.validateJwtToken(jwt) && jwt != null) {
+        if (jwt != null) {
             try {
                 return ResponseEntity.ok(userService.updateEmail(jwt, email));
             } catch (UsernameNotFoundException e) {
@@ -50,9 +53,32 @@ public class AccountController {
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("JWT authentication error");
     }
 
+    /**
+     * Completion counts between from and to (inclusive, by default the last 30 days) grouped by day, week or
+     * month, with streaks and per-project totals. With projectId only that project's completions are counted.
+     */
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
+    public ResponseEntity<?> getStats(VerifiedJwt jwt,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+                                      @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+                                      @RequestParam(required = false) Long projectId,
+                                      @RequestParam(required = false) String period) {
+        if (jwt != null) {
+            try {
+                return ResponseEntity.ok(completionStatsService.getStats(jwt, from, to, projectId, period));
+            } catch (InvalidStatsRangeException e) {
+                return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+            } catch (UsernameNotFoundException e) {
+                return ResponseEntity.status(HttpStatus.NO_CONTENT).body(e.getMessage());
+            }
+        }
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("JWT authentication error");
+    }
+
     @GetMapping("/loggedin")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public  ResponseEntity<?> loggedInCheck(@RequestHeader(name = "Authorization") String token,
+    public  ResponseEntity<?> loggedInCheck(VerifiedJwt jwt,
                                             @PathVariable(name = "email") String email) {
         return ResponseEntity.ok("you're logged in");
     }
@@ -1,39 +1,42 @@
 package com.lazy.todo.controllers;
 
-import java.util.HashSet;
 import java.util.List;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 import javax.validation.Valid;
 
+import com.lazy.todo.exceptions.InvalidRefreshTokenException;
 import com.lazy.todo.exceptions.PasswordResetTokenExpiredException;
-import com.lazy.todo.models.Role;
 import com.lazy.todo.models.User;
 import com.lazy.todo.payload.request.NewPasswordRequest;
 import com.lazy.todo.payload.request.PasswordResetRequest;
+import com.lazy.todo.payload.request.RefreshTokenRequest;
 import com.lazy.todo.repository.PasswordResetTokenRepository;
 import com.lazy.todo.security.jwt.JwtUtils;
 import com.lazy.todo.security.services.PasswordResetService;
+import com.lazy.todo.security.services.RefreshTokenService;
+import com.lazy.todo.security.services.SigninExecutor;
 import com.lazy.todo.security.services.UserDetailsImpl;
 import com.lazy.todo.security.services.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.web.bind.annotation.*;
 
-import com.lazy.todo.models.ERole;
 import com.lazy.todo.payload.request.LoginRequest;
 import com.lazy.todo.payload.request.SignupRequest;
 import com.lazy.todo.payload.response.JwtResponse;
 import com.lazy.todo.payload.response.MessageResponse;
-import com.lazy.todo.repository.RoleRepository;
 import com.lazy.todo.repository.UserRepository;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -48,7 +51,7 @@ public class AuthController {
   UserRepository userRepository;
 
   @Autowired
-  RoleRepository roleRepository;
+  UserService userService;
 
   @Autowired
   PasswordEncoder encoder;
@@ -59,26 +62,63 @@ public class AuthController {
   @Autowired
   PasswordResetService passwordResetService;
 
+  @Autowired
+  SigninExecutor signinExecutor;
+
+  //spring boot's general purpose pool, the signin response is built here so the hashing threads only hash
+  @Autowired
+  @Qualifier("applicationTaskExecutor")
+  TaskExecutor responseExecutor;
+
+  @Autowired
+  RefreshTokenService refreshTokenService;
+
   //return a JWT token if authentication is successful
+  //the password check runs on the signin pool so the servlet thread is released while bcrypt works, the tokens
+  //and the refresh token insert run on the response executor once it is done
   @PostMapping("/signin")
-  public ResponseEntity<?> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+  public CompletableFuture<ResponseEntity<?>> authenticateUser(@Valid @RequestBody LoginRequest loginRequest) {
+    try {
+      return signinExecutor.submit(() -> authenticationManager.authenticate(
+              new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword())))
+          .thenApplyAsync(this::signinResponse, responseExecutor);
+    } catch (RejectedExecutionException e) {
+      return CompletableFuture.completedFuture(ResponseEntity
+          .status(HttpStatus.SERVICE_UNAVAILABLE)
+          .header(HttpHeaders.RETRY_AFTER, "1")
+          .body(new MessageResponse("Error: Too many sign in attempts, please try again shortly")));
+    }
+  }
 
-    Authentication authentication = authenticationManager.authenticate(
-        new UsernamePasswordAuthenticationToken(loginRequest.getUsername(), loginRequest.getPassword()));
+  private ResponseEntity<?> signinResponse(Authentication authentication) {
+    return ResponseEntity.ok(tokenResponse((UserDetailsImpl) authentication.getPrincipal()));
+  }
+
+  //swap a refresh token for a new JWT and refresh token, no password check so no bcrypt
+  @PostMapping("/refresh")
+  public ResponseEntity<?> refreshToken(@Valid @RequestBody RefreshTokenRequest refreshTokenRequest) {
+    try {
+      UserDetailsImpl userDetails = refreshTokenService.useRefreshToken(refreshTokenRequest.getRefreshToken());
+      return ResponseEntity.ok(tokenResponse(userDetails));
+    } catch (InvalidRefreshTokenException e) {
+      return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(new MessageResponse(e.getMessage()));
+    }
+  }
+
+  private JwtResponse tokenResponse(UserDetailsImpl userDetails) {
+    String jwt = jwtUtils.generateJwtToken(userDetails);
+    String refreshToken = refreshTokenService.createRefreshToken(userDetails.getId());
 
-    SecurityContextHolder.getContext().setAuthentication(authentication);
-    String jwt = jwtUtils.generateJwtToken(authentication);
-    
-    UserDetailsImpl userDetails = (UserDetailsImpl) authentication.getPrincipal();
     List<String> roles = userDetails.getAuthorities().stream()
         .map(item -> item.getAuthority())
         .collect(Collectors.toList());
 
-    return ResponseEntity.ok(new JwtResponse(jwt, 
-                         userDetails.getId(), 
-                         userDetails.getUsername(), 
-                         userDetails.getEmail(), 
-                         roles));
+    return new JwtResponse(jwt,
+                         refreshToken,
+                         userDetails.getId(),
+                         userDetails.getUsername(),
+                         userDetails.getEmail(),
+                         roles);
   }
 
   //register a new accoung
@@ -96,20 +136,11 @@ public class AuthController {
           .body(new MessageResponse("Error: Email is already in use!"));
     }
 
-    // Create new user's account
+    // Create new user's account, the password is hashed before the transaction opens
     User user = new User(signUpRequest.getUsername(),
                signUpRequest.getEmail(),
                encoder.encode(signUpRequest.getPassword()));
-
-    Set<String> strRoles = signUpRequest.getRole();
-    Set<Role> roles = new HashSet<>();
-
-      Role userRole = roleRepository.findByName(ERole.ROLE_USER)
-          .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
-      roles.add(userRole);
-
-    user.setRoles(roles);
-    userRepository.save(user);
+    userService.registerUser(user);
 
     return ResponseEntity.ok(new MessageResponse("User registered successfully!"));
   }
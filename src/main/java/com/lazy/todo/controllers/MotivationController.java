@@ -7,7 +7,7 @@ import com.lazy.todo.models.Motivation;
 import com.lazy.todo.payload.request.MotivationRequest;
 import com.lazy.todo.payload.response.MessageResponse;
 import com.lazy.todo.payload.response.MotivationResponse;
-import com.lazy.todo.security.jwt.JwtUtils;
+import com.lazy.todo.security.jwt.VerifiedJwt;
 import com.lazy.todo.services.AccountService;
 import com.lazy.todo.services.MotivationService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,9 +42,6 @@ public class MotivationController {
     @Autowired
     MotivationService motivationService;
 
-    @Autowired
-    JwtUtils jwtUtils;
-
     @PostMapping("/congratulate")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
     public ResponseEntity<?> chatGptCongratulate(@RequestBody Motivation motivation) {
@@ -67,11 +64,10 @@ public class MotivationController {
 
     @GetMapping("/encourage/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<?> chatGptEncourage(@PathVariable("id") Long id, @RequestHeader(name = "Authorization") String token) {
+    public ResponseEntity<?> chatGptEncourage(@PathVariable("id") Long id, VerifiedJwt jwt) {
         // create a request
         Motivation motivation = new Motivation();
-        String jwt = token.substring(7);
-        if (jwtUtils.validateJwtToken(jwt) && jwt != null)
+        if (jwt != null)
         {
             try {
                 motivation = motivationService.createMotivation(jwt, id);
@@ -104,8 +100,11 @@ public class MotivationController {
     @PostMapping("/personality/{personality}")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
     public ResponseEntity<?> changePersonality(@PathVariable("personality") String personality,
-                                               @RequestHeader(name = "Authorization") String token) {
-        String jwt = token.substring(7);
+                                               VerifiedJwt jwt) {
+        if (jwt == null) {
+            return ResponseEntity
+                    .badRequest().body(new MessageResponse("JWT authentication error"));
+        }
         try {
             return ResponseEntity.ok(accountService.changePersonality(jwt, personality));
         } catch (UsernameNotFoundException e) {
@@ -119,8 +118,11 @@ public class MotivationController {
 
     @GetMapping("/personality")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<?> getPersonality(@RequestHeader(name = "Authorization") String token) {
-        String jwt = token.substring(7);
+    public ResponseEntity<?> getPersonality(VerifiedJwt jwt) {
+        if (jwt == null) {
+            return ResponseEntity
+                    .badRequest().body(new MessageResponse("JWT authentication error"));
+        }
         try {
             return ResponseEntity.ok(accountService.getPersonality(jwt));
         } catch (UsernameNotFoundException e) {
@@ -1,18 +1,18 @@
 package com.lazy.todo.controllers;
 
 import com.lazy.todo.exceptions.AccessDeniedException;
+import com.lazy.todo.exceptions.InvalidCursorException;
 import com.lazy.todo.exceptions.NoSuchProjectException;
 import com.lazy.todo.exceptions.NoSuchTaskException;
 import com.lazy.todo.models.Project;
 import com.lazy.todo.models.Task;
-import com.lazy.todo.payload.request.PriorityUpdate;
 import com.lazy.todo.payload.request.PriorityUpdateList;
 import com.lazy.todo.payload.request.ProjectRequest;
 import com.lazy.todo.payload.request.TaskRequest;
 import com.lazy.todo.payload.response.MessageResponse;
 import com.lazy.todo.repository.ProjectRepository;
 import com.lazy.todo.repository.UserRepository;
-import com.lazy.todo.security.jwt.JwtUtils;
+import com.lazy.todo.security.jwt.VerifiedJwt;
 import com.lazy.todo.services.ProjectService;
 import com.lazy.todo.services.SortingService;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -21,8 +21,6 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.ArrayList;
-import java.util.List;
 
 //this class to controll all actions to do with projects - projects contain tasks
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -30,9 +28,6 @@ import java.util.List;
 @RequestMapping("/api/project")
 public class ProjectController {
 
-    @Autowired
-    JwtUtils jwtUtils;
-
     @Autowired
     SortingService sortingService;
 
@@ -42,11 +37,9 @@ public class ProjectController {
     //create a new project
     @PostMapping("/new")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<?> newProject(@RequestHeader(name = "Authorization") String token,
+    public ResponseEntity<?> newProject(VerifiedJwt jwt,
                                         @RequestBody ProjectRequest projectRequest) {
-        //as elsewhere, trim "bearer:"
-        String jwt = token.substring(7);
-        if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
+        if (jwt != null) {
             return ResponseEntity
                     .ok(projectService.newProject(jwt, projectRequest));
         }
@@ -56,10 +49,9 @@ public class ProjectController {
 
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<?> getProjectById(@PathVariable("id") Long id, @RequestHeader(name = "Authorization") String token)  {
+    public ResponseEntity<?> getProjectById(@PathVariable("id") Long id, VerifiedJwt jwt)  {
 
-        String jwt = token.substring(7);
-        if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
+        if (jwt != null) {
             try {
                 return ResponseEntity
                         .ok(projectService.getProjectById(jwt, id));
@@ -75,22 +67,26 @@ public class ProjectController {
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<?> getAllProjects(@RequestHeader(name = "Authorization") String token) {
+    public ResponseEntity<?> getAllProjects(VerifiedJwt jwt,
+                                            @RequestParam(required = false) String cursor,
+                                            @RequestParam(required = false) Integer size) {
 
-        String jwt = token.substring(7);
-        if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-            return ResponseEntity
-                    .ok(projectService.getAllProjectsByUser(jwt));
+        if (jwt != null) {
+            try {
+                return ResponseEntity
+                        .ok(projectService.getAllProjectsByUser(jwt, cursor, size));
+            } catch (InvalidCursorException e) {
+                return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+            }
         }
         return ResponseEntity
                 .badRequest().body(new MessageResponse("JWT authentication error"));
     }
     @GetMapping("/all/sorted")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<?> getAllCurrentProjects(@RequestHeader(name = "Authorization") String token) {
+    public ResponseEntity<?> getAllCurrentProjects(VerifiedJwt jwt) {
 
-        String jwt = token.substring(7);
-        if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
+        if (jwt != null) {
                 return ResponseEntity.ok(sortingService.getSortedProjects(jwt));
         }
         return ResponseEntity
@@ -99,11 +95,10 @@ public class ProjectController {
 
     @GetMapping("/all/tasks/sorted/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<?> getAllCurrentProjectTasks(@RequestHeader(name = "Authorization") String token,
+    public ResponseEntity<?> getAllCurrentProjectTasks(VerifiedJwt jwt,
                                                        @PathVariable("id") Long id) {
 
-        String jwt = token.substring(7);
-        if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
+        if (jwt != null) {
             try {
                 return ResponseEntity.ok(sortingService.getCurrentProjectTasks(jwt, id));
             } catch (NoSuchProjectException e) {
@@ -118,22 +113,16 @@ public class ProjectController {
 
     @PutMapping("/priority")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<?> updateProjectPriority(@RequestHeader(name = "Authorization") String token,
+    public ResponseEntity<?> updateProjectPriority(VerifiedJwt jwt,
                                                        @RequestBody PriorityUpdateList updateList) {
-        String jwt = token.substring(7);
-        List<Project> returnProjects = new ArrayList<>();
-        if (jwtUtils.validateJwtToken(jwt) && jwt != null) {
-            for (PriorityUpdate priorityUpdate: updateList.getPriorityUpdates())
-            {
-                try {
-                    returnProjects.add(projectService.setProjectPriority(jwt, priorityUpdate.getId(), priorityUpdate.getPriority()));
-                } catch (AccessDeniedException e) {
-                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
-                } catch (NoSuchTaskException e) {
-                    return ResponseEntity.status(HttpStatus.NO_CONTENT).body(e.getMessage());
-                }
+        if (jwt != null) {
+            try {
+                return ResponseEntity.ok(projectService.setProjectPriorities(jwt, updateList.getPriorityUpdates()));
+            } catch (AccessDeniedException e) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
+            } catch (NoSuchProjectException e) {
+                return ResponseEntity.status(HttpStatus.NO_CONTENT).body(e.getMessage());
             }
-            return ResponseEntity.ok(returnProjects);
         }
         return ResponseEntity
                 .badRequest().body(new MessageResponse("JWT authetication error"));
@@ -142,10 +131,9 @@ public class ProjectController {
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
     public ResponseEntity<?> updateProjectById(@PathVariable("id") Long id,
-                                    @RequestHeader(name = "Authorization") String token,
+                                    VerifiedJwt jwt,
                                     @RequestBody ProjectRequest projectRequest)  {
-        String jwt = token.substring(7);
-        if (jwtUtils.validateJwtToken(jwt) && jwt != null) {
+        if (jwt != null) {
             try {
                 return ResponseEntity
                         .ok(projectService.updateProjectById(jwt, id, projectRequest));
@@ -162,9 +150,8 @@ public class ProjectController {
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
     public ResponseEntity<?> deleteProjectById (@PathVariable("id") Long id,
-                                                @RequestHeader(name = "Authorization") String token)  {
-        String jwt = token.substring(7);
-        if (jwtUtils.validateJwtToken(jwt) && jwt != null) {
+                                                VerifiedJwt jwt)  {
+        if (jwt != null) {
             try {
                 return ResponseEntity
                         .ok(projectService.deleteProjectById(jwt, id));
@@ -186,10 +173,9 @@ public class ProjectController {
     @PostMapping("/addTask/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
     public ResponseEntity<?> addTaskToProject(@PathVariable("id") Long id,
-                                              @RequestHeader(name = "Authorization") String token,
+                                              VerifiedJwt jwt,
                                               @RequestBody TaskRequest taskRequest){
-        String jwt = token.substring(7);
-        if (jwtUtils.validateJwtToken(jwt)) {
+        if (jwt != null) {
             try {
                 return ResponseEntity.ok(projectService.addTaskToProject(jwt, id, taskRequest));
             } catch (NoSuchProjectException e) {
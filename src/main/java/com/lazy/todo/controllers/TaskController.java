@@ -1,15 +1,14 @@
 package com.lazy.todo.controllers;
 
 import com.lazy.todo.exceptions.AccessDeniedException;
+import com.lazy.todo.exceptions.InvalidCursorException;
 import com.lazy.todo.exceptions.NoSuchTaskException;
 import com.lazy.todo.models.Task;
 import com.lazy.todo.payload.request.PriorityUpdate;
 import com.lazy.todo.payload.request.PriorityUpdateList;
 import com.lazy.todo.payload.request.TaskRequest;
 import com.lazy.todo.payload.response.MessageResponse;
-import com.lazy.todo.repository.TaskRepository;
-import com.lazy.todo.repository.UserRepository;
-import com.lazy.todo.security.jwt.JwtUtils;
+import com.lazy.todo.security.jwt.VerifiedJwt;
 import com.lazy.todo.services.AccountService;
 import com.lazy.todo.services.SortingService;
 import com.lazy.todo.services.TaskService;
@@ -18,9 +17,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.client.RestTemplate;
 
-import java.util.ArrayList;
 import java.util.List;
 
 @CrossOrigin(origins = "*", maxAge = 3600)
@@ -28,9 +25,6 @@ import java.util.List;
 @RequestMapping("/api/task")
 public class TaskController {
 
-    @Autowired
-    JwtUtils jwtUtils;
-
     @Autowired
     TaskService taskService;
 
@@ -42,17 +36,15 @@ public class TaskController {
 
     /**
      * Save a new task to the DB, and assign it to the user associated with the JWT token
-     * @param token
+     * @param jwt
      * @param taskRequest
      * @return ResponseEntity
      */
     @PostMapping("/new")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<?> newTasks(@RequestHeader(name = "Authorization") String token,
+    public ResponseEntity<?> newTasks(VerifiedJwt jwt,
                                       @RequestBody TaskRequest taskRequest) {
-        //as elsewhere, trim "bearer:"
-        String jwt = token.substring(7);
-        if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
+        if (jwt != null) {
             return ResponseEntity.ok(taskService.saveNewTask(jwt, taskRequest));
         }
         return ResponseEntity
@@ -60,11 +52,9 @@ public class TaskController {
     }
     @GetMapping("/score")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<?> getScore(@RequestHeader(name = "Authorization") String token) {
+    public ResponseEntity<?> getScore(VerifiedJwt jwt) {
 
-        String jwt = token.substring(7);
-        if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-            System.out.println(accountService.getScore(jwt));
+        if (jwt != null) {
             return ResponseEntity.ok(accountService.getScore(jwt));
         }
         return ResponseEntity
@@ -74,15 +64,14 @@ public class TaskController {
     /**
      * Returns the task object associated with the given ID
      * @param id
-     * @param token
+     * @param jwt
      * @return ResponseEntity
      */
     @GetMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<?> getTaskById(@PathVariable("id") Long id, @RequestHeader(name = "Authorization") String token) {
+    public ResponseEntity<?> getTaskById(@PathVariable("id") Long id, VerifiedJwt jwt) {
 
-        String jwt = token.substring(7);
-        if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
+        if (jwt != null) {
             try {
                 Task task = taskService.getTaskById(jwt, id);
                 if (task != null) {
@@ -102,19 +91,27 @@ public class TaskController {
 
 
     /**
-     * Returns all the tasks associated with the user - user identiy is determined from the JWT
-     * @param token
+     * Returns the tasks associated with the user - user identiy is determined from the JWT
+     * one page at a time, ordered by priority. Pass the nextCursor of a page to get the one after it
+     * @param jwt
+     * @param cursor
+     * @param size
      * @return ResponseEntity
      */
 
     @GetMapping("/all")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<?> getAllTasks(@RequestHeader(name = "Authorization") String token) {
+    public ResponseEntity<?> getAllTasks(VerifiedJwt jwt,
+                                         @RequestParam(required = false) String cursor,
+                                         @RequestParam(required = false) Integer size) {
 
-        String jwt = token.substring(7);
-        if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-            return ResponseEntity
-                    .ok(taskService.getAllTasks(jwt));
+        if (jwt != null) {
+            try {
+                return ResponseEntity
+                        .ok(taskService.getAllTasks(jwt, cursor, size));
+            } catch (InvalidCursorException e) {
+                return ResponseEntity.badRequest().body(new MessageResponse(e.getMessage()));
+            }
         }
         return ResponseEntity
                 .badRequest().body(new MessageResponse("JWT authentication error"));
@@ -122,10 +119,9 @@ public class TaskController {
 
     @GetMapping("/all/current")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<?> getAllCurrentTasks(@RequestHeader(name = "Authorization") String token) {
+    public ResponseEntity<?> getAllCurrentTasks(VerifiedJwt jwt) {
 
-        String jwt = token.substring(7);
-        if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
+        if (jwt != null) {
             return ResponseEntity
                     .ok(sortingService.getCurrentTasks(jwt));
         }
@@ -136,16 +132,15 @@ public class TaskController {
     /**
      * returns the usernames of all Users who are assigned the task with the id given as a path variable
      * @param id
-     * @param token
+     * @param jwt
      * @return ResponseEntity
      */
 
     @GetMapping("/users/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<?> getTaskUsers(@PathVariable("id") Long id, @RequestHeader(name = "Authorization") String token) {
+    public ResponseEntity<?> getTaskUsers(@PathVariable("id") Long id, VerifiedJwt jwt) {
 
-        String jwt = token.substring(7);
-        if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
+        if (jwt != null) {
             try {
                 return ResponseEntity
                         .ok(taskService.getTaskUsers(jwt, id));
@@ -162,7 +157,7 @@ public class TaskController {
     /**
      * Update a task, identified by the pathvariable ID, change to the values provided in the taskRequest body
      * @param id
-     * @param token
+     * @param jwt
      * @param taskRequest
      * @return
      */
@@ -170,10 +165,9 @@ public class TaskController {
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
     public ResponseEntity<?> updateTask(@PathVariable("id") Long id,
-                                        @RequestHeader(name = "Authorization") String token,
+                                        VerifiedJwt jwt,
                                         @RequestBody TaskRequest taskRequest) {
-        String jwt = token.substring(7);
-        if (jwtUtils.validateJwtToken(jwt) && jwt != null) {
+        if (jwt != null) {
             try {
                 return ResponseEntity
                         .ok(taskService.updateTaskById(jwt, id, taskRequest));
@@ -189,21 +183,16 @@ public class TaskController {
 
     @PutMapping("/priority")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<?> updateTaskPriority(@RequestHeader(name = "Authorization") String token,
+    public ResponseEntity<?> updateTaskPriority(VerifiedJwt jwt,
                                                 @RequestBody PriorityUpdateList updateList) {
-        List<Task> returnTasks = new ArrayList<>();
-        String jwt = token.substring(7);
-        if (jwtUtils.validateJwtToken(jwt) && jwt != null) {
-            for (PriorityUpdate priorityUpdate: updateList.getPriorityUpdates() ) {
-                try {
-                    returnTasks.add(taskService.setTaskPriority(jwt, priorityUpdate.getId(), priorityUpdate.getPriority()));
-                } catch (AccessDeniedException e) {
-                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
-                } catch (NoSuchTaskException e) {
-                    return ResponseEntity.status(HttpStatus.NO_CONTENT).body(e.getMessage());
-                }
+        if (jwt != null) {
+            try {
+                return ResponseEntity.ok(taskService.setTaskPriorities(jwt, updateList.getPriorityUpdates()));
+            } catch (AccessDeniedException e) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
+            } catch (NoSuchTaskException e) {
+                return ResponseEntity.status(HttpStatus.NO_CONTENT).body(e.getMessage());
             }
-            return ResponseEntity.ok(returnTasks);
         }
         return ResponseEntity
                 .badRequest().body(new MessageResponse("JWT authetication error"));
@@ -211,22 +200,16 @@ public class TaskController {
 
     @PutMapping("/project/priority")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
-    public ResponseEntity<?> updateTaskProjectPriority(@RequestHeader(name = "Authorization") String token,
+    public ResponseEntity<?> updateTaskProjectPriority(VerifiedJwt jwt,
                                                        @RequestBody List<PriorityUpdate> updateList) {
-        String jwt = token.substring(7);
-        List <Task> returnTasks = new ArrayList<>();
-        if (jwtUtils.validateJwtToken(jwt) && jwt != null) {
-            for (PriorityUpdate priorityUpdate: updateList)
-            {
-                try {
-                    returnTasks.add(taskService.setTaskProjectPriority(jwt, priorityUpdate.getId(), priorityUpdate.getPriority()));
-                } catch (AccessDeniedException e) {
-                    return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
-                } catch (NoSuchTaskException e) {
-                    return ResponseEntity.status(HttpStatus.NO_CONTENT).body(e.getMessage());
-                }
+        if (jwt != null) {
+            try {
+                return ResponseEntity.ok(taskService.setTaskProjectPriorities(jwt, updateList));
+            } catch (AccessDeniedException e) {
+                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(e.getMessage());
+            } catch (NoSuchTaskException e) {
+                return ResponseEntity.status(HttpStatus.NO_CONTENT).body(e.getMessage());
             }
-            return ResponseEntity.ok(returnTasks);
         }
         return ResponseEntity
                 .badRequest().body(new MessageResponse("JWT authetication error"));
@@ -237,9 +220,8 @@ public class TaskController {
     @PutMapping("/complete/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
     public ResponseEntity<?> completeTask(@PathVariable("id") Long id,
-                                        @RequestHeader(name = "Authorization") String token) {
-        String jwt = token.substring(7);
-        if (jwtUtils.validateJwtToken(jwt) && jwt != null) {
+                                        VerifiedJwt jwt) {
+        if (jwt != null) {
             try {
                 return ResponseEntity.ok(taskService.completeTask(jwt, id));
             } catch (AccessDeniedException e) {
@@ -255,9 +237,8 @@ public class TaskController {
     @PutMapping("/unComplete/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
     public ResponseEntity<?> unCompleteTask(@PathVariable("id") Long id,
-                                          @RequestHeader(name = "Authorization") String token) {
-        String jwt = token.substring(7);
-        if (jwtUtils.validateJwtToken(jwt) && jwt != null) {
+                                          VerifiedJwt jwt) {
+        if (jwt != null) {
             try {
                 return ResponseEntity.ok(taskService.unCompleteTask(jwt, id));
             } catch (AccessDeniedException e) {
@@ -273,7 +254,7 @@ public class TaskController {
     /**
      * delete the task identified with the id provided in the path
      * @param id
-     * @param token
+     * @param jwt
      * @return
      */
 
@@ -281,10 +262,9 @@ public class TaskController {
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('USER') or hasRole('MODERATOR') or hasRole('ADMIN')")
     public ResponseEntity<?> deleteTask(@PathVariable("id") Long id,
-                                         @RequestHeader(name = "Authorization") String token)  {
+                                         VerifiedJwt jwt)  {
 
-        String jwt = token.substring(7);
-        if (jwtUtils.validateJwtToken(jwt) && jwt != null){
+        if (jwt != null){
             try {
                 return ResponseEntity.ok(taskService.deleteTaskById(jwt, id));
             } catch (AccessDeniedException e) {
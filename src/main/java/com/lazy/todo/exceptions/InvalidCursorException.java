@@ -0,0 +1,10 @@
+package com.lazy.todo.exceptions;
+//return this exception if a page cursor was not one we handed out
+public class InvalidCursorException extends Exception{
+
+    public InvalidCursorException(String message) {super(message);}
+
+    public InvalidCursorException(){
+
+    }
+}
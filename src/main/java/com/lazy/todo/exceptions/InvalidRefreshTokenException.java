@@ -0,0 +1,10 @@
+package com.lazy.todo.exceptions;
+//return this exception if a refresh token is unknown, already used or expired
+public class InvalidRefreshTokenException extends Exception{
+
+    public InvalidRefreshTokenException(String message) {super(message);}
+
+    public InvalidRefreshTokenException(){
+
+    }
+}
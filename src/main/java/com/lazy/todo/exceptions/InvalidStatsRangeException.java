@@ -0,0 +1,10 @@
+package com.lazy.todo.exceptions;
+//return this exception if a stats request asks for a range or period we can't answer
+public class InvalidStatsRangeException extends Exception{
+
+    public InvalidStatsRangeException(String message) {super(message);}
+
+    public InvalidStatsRangeException(){
+
+    }
+}
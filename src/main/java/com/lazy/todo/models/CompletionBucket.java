@@ -0,0 +1,39 @@
+package com.lazy.todo.models;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+
+//how many tasks a user completed on one day in one project, projectId 0 holds the tasks without a project
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@IdClass(CompletionBucketId.class)
+@Table(name = "completion_buckets")
+public class CompletionBucket {
+
+    public static final long NO_PROJECT = 0L;
+
+    @Id
+    private Long userId;
+
+    @Id
+    private LocalDate completedOn;
+
+    @Id
+    private Long projectId;
+
+    @Column(nullable = false)
+    private int completed;
+
+    public CompletionBucket(Long userId, LocalDate completedOn, Long projectId, int completed) {
+        this.userId = userId;
+        this.completedOn = completedOn;
+        this.projectId = projectId;
+        this.completed = completed;
+    }
+}
@@ -0,0 +1,22 @@
+package com.lazy.todo.models;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Getter
+@EqualsAndHashCode
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompletionBucketId implements Serializable {
+
+    private Long userId;
+
+    private LocalDate completedOn;
+
+    private Long projectId;
+}
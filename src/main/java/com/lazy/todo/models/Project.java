@@ -3,6 +3,8 @@ package com.lazy.todo.models;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.google.gson.Gson;
 import lombok.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import javax.persistence.*;
 import javax.validation.constraints.NotBlank;
@@ -12,28 +14,10 @@ import java.time.LocalDate;
 import java.util.List;
 import java.util.Set;
 
-@NamedNativeQuery(name = "Project.sortedTasks",
-        query = "SELECT t.id, t.title, t.description, t.checked, t.priority, t.project_priority," +
-                " t.start_date, t.target_date\n" +
-                "FROM defaultdb.user_tasks ut \n" +
-                "\tINNER JOIN defaultdb.users u\n" +
-                "\t\tON ut.user_id = u.id\n" +
-                "\tINNER JOIN defaultdb.tasks t\n" +
-                "\t\tON ut.task_id = t.id\n" +
-                "WHERE (t.completed_on > (NOW() - INTERVAL 1 DAY) OR t.checked IS NULL)\n" +
-                "AND u.id = (?1)" +
-                "AND t.project_id = (?2)\n" +
-                "ORDER BY t.priority")
-
-@NamedNativeQuery(name = "Project.sortedProjects",
-        query = "SELECT p.id, p.title, p.description, p.checked, p.priority\n" +
-                "FROM defaultdb.projects p\n" +
-                "WHERE p.owner_id = ?1\n" +
-                "order by priority;")
-
 @Getter
 @Setter
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "projects")
 @Table(name = "projects")
 @NoArgsConstructor
 @AllArgsConstructor
@@ -0,0 +1,37 @@
+package com.lazy.todo.models;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+//only the SHA-256 of the refresh token is stored, the token itself is only ever known to the client
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@Table(name = "refresh_tokens")
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true, length = 44)
+    private String tokenHash;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(nullable = false, name = "user_id")
+    private User user;
+
+    @Column(nullable = false)
+    private Instant expiryDate;
+
+    public RefreshToken(String tokenHash, User user, Instant expiryDate) {
+        this.tokenHash = tokenHash;
+        this.user = user;
+        this.expiryDate = expiryDate;
+    }
+}
@@ -0,0 +1,32 @@
+package com.lazy.todo.models;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+//every token issued to this user at or before revokedAt is no longer accepted
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@Table(name = "revoked_tokens")
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String username;
+
+    @Column(nullable = false)
+    private Instant revokedAt;
+
+    public RevokedToken(String username, Instant revokedAt) {
+        this.username = username;
+        this.revokedAt = revokedAt;
+    }
+}
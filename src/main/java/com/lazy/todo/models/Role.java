@@ -1,8 +1,13 @@
 package com.lazy.todo.models;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+
 import javax.persistence.*;
 
+//roles are seeded by the V1 migration and never written by the application
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = "roles")
 @Table(name = "roles")
 public class Role {
   @Id
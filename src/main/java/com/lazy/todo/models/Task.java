@@ -14,19 +14,6 @@ import java.time.LocalDate;
 import java.util.HashSet;
 import java.util.Set;
 
-@NamedNativeQuery(name = "Task.sortedTasks",
-        query = "SELECT t.id, t.title, t.description, t.checked, t.priority, t.project_priority, t.project_id," +
-                " t.start_date, t.target_date\n" +
-                "FROM defaultdb.user_tasks ut \n" +
-                "\tINNER JOIN defaultdb.users u\n" +
-                "\t\tON ut.user_id = u.id\n" +
-                "\tINNER JOIN defaultdb.tasks t\n" +
-                "\t\tON ut.task_id = t.id\n" +
-                "WHERE (t.completed_on > (NOW() - INTERVAL 1 DAY) OR t.checked IS NULL)\n" +
-                "\tAND u.id = ?1\n" +
-                "\tAND t.project_id IS NULL " +
-                "ORDER BY t.priority")
-
 @Getter
 @Setter
 @Entity
@@ -58,8 +45,9 @@ public class Task {
     private int projectPriority;
 
 
+    //lazy so task lists don't select every project, and no cascade so saving a task never writes its project
     @JsonIgnore
-    @ManyToOne(cascade = CascadeType.ALL, fetch = FetchType.EAGER)
+    @ManyToOne(fetch = FetchType.LAZY)
     private Project project;
 
     @JsonIgnore
@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Cascade;
 
 import java.util.ArrayList;
@@ -16,23 +18,12 @@ import javax.persistence.*;
 import javax.validation.constraints.Email;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.Size;
-@NamedNativeQuery(name = "User.scoreCount",
-        query = "SELECT Count(*)\n" +
-                "FROM defaultdb.user_tasks ut \n" +
-                "\tINNER JOIN defaultdb.users u\n" +
-                "\t\tON ut.user_id = u.id\n" +
-                "\tINNER JOIN defaultdb.tasks t\n" +
-                "\t\tON ut.task_id = t.id\n" +
-                "WHERE t.completed_on > (NOW() - INTERVAL 1 YEAR)\n" +
-                "AND t.checked IS NOT NULL\n" +
-                "AND u.id = ?;")
-
-
 @AllArgsConstructor
 @NoArgsConstructor
 @Getter
 @Setter
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "users")
 @Table(name = "users", 
     uniqueConstraints = { 
       @UniqueConstraint(columnNames = "username"),
@@ -58,7 +49,9 @@ public class User {
 
   private String personality = "a friendly coach";
 
-  @ManyToMany(fetch = FetchType.LAZY, cascade = CascadeType.ALL)
+  //no cascade, roles are shared reference rows: a user saved with a role read in another session only links to it
+  @ManyToMany(fetch = FetchType.LAZY)
+  @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "user-roles")
   @JoinTable(  name = "user_roles", 
         joinColumns = @JoinColumn(name = "user_id"), 
         inverseJoinColumns = @JoinColumn(name = "role_id"))
@@ -0,0 +1,27 @@
+package com.lazy.todo.models;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import javax.persistence.*;
+
+//the number of tasks a user completed in the last year, rebuilt from the tasks table by ScoreService.reconcile
+@Getter
+@Setter
+@Entity
+@NoArgsConstructor
+@Table(name = "user_scores")
+public class UserScore {
+
+    @Id
+    private Long userId;
+
+    @Column(nullable = false)
+    private long score;
+
+    public UserScore(Long userId, long score) {
+        this.userId = userId;
+        this.score = score;
+    }
+}
@@ -0,0 +1,15 @@
+package com.lazy.todo.payload.request;
+
+import lombok.*;
+
+import javax.validation.constraints.NotBlank;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class RefreshTokenRequest {
+
+    @NotBlank
+    private String refreshToken;
+}
@@ -0,0 +1,20 @@
+package com.lazy.todo.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+//tasks completed in the period starting on this day
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompletionCount {
+
+    private LocalDate start;
+
+    private long completed;
+}
@@ -0,0 +1,34 @@
+package com.lazy.todo.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompletionStatsResponse {
+
+    private LocalDate from;
+
+    private LocalDate to;
+
+    private String period;
+
+    private long total;
+
+    //consecutive days with a completion, ending on the last day of the range (or the day before, if that is today)
+    private int currentStreak;
+
+    private int longestStreak;
+
+    //only periods with at least one completion are listed
+    private List<CompletionCount> completions;
+
+    private List<ProjectCompletions> projects;
+}
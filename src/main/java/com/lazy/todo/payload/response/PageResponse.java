@@ -0,0 +1,20 @@
+package com.lazy.todo.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+//one page of a keyset-paginated list, nextCursor is null on the last page
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PageResponse<T> {
+
+    private List<T> items;
+
+    private String nextCursor;
+}
@@ -0,0 +1,20 @@
+package com.lazy.todo.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Collection;
+
+//acknowledges a reorder without sending every reordered entity back
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class PriorityUpdateResponse {
+
+    private int updated;
+
+    private Collection<Long> ids;
+}
@@ -0,0 +1,18 @@
+package com.lazy.todo.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+//tasks completed in one project over the whole range, projectId is null for tasks without a project
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectCompletions {
+
+    private Long projectId;
+
+    private long completed;
+}
@@ -0,0 +1,30 @@
+package com.lazy.todo.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+//a read-only row for project lists, built straight from the query with the same json fields as Project
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectSummary {
+
+    private Long id;
+
+    private String title;
+
+    private String description;
+
+    private LocalDate startLocalDate;
+
+    private LocalDate targetLocalDate;
+
+    private LocalDate checked;
+
+    private int priority;
+}
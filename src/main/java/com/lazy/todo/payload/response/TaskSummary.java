@@ -0,0 +1,34 @@
+package com.lazy.todo.payload.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDate;
+
+//a read-only row for task lists, built straight from the query with the same json fields as Task
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TaskSummary {
+
+    private Long id;
+
+    private String title;
+
+    private String description;
+
+    private LocalDate startDate;
+
+    private LocalDate targetDate;
+
+    private LocalDate completedOn;
+
+    private Boolean checked;
+
+    private int priority;
+
+    private int projectPriority;
+}
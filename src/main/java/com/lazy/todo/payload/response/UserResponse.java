@@ -12,4 +12,6 @@ import lombok.Setter;
 public class UserResponse {
 
     private String username;
+
+    private String personality;
 }
@@ -0,0 +1,61 @@
+package com.lazy.todo.repository;
+
+import com.lazy.todo.models.CompletionBucket;
+import com.lazy.todo.models.CompletionBucketId;
+import com.lazy.todo.payload.response.CompletionCount;
+import com.lazy.todo.payload.response.ProjectCompletions;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.QueryHint;
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface CompletionBucketRepository extends JpaRepository<CompletionBucket, CompletionBucketId> {
+
+    //moves the existing buckets of every owner of the task, in the bucket of the task's project. owners without
+    //a bucket for that day are left alone, a completion adds theirs with insertMissingTaskOwnerBuckets
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "completion_buckets"))
+    @Query(value = "update completion_buckets set completed = completed + ?3 where completed_on = ?2 " +
+            "and project_id = (select coalesce(t.project_id, 0) from tasks t where t.id = ?1) " +
+            "and user_id in (select ut.user_id from user_tasks ut where ut.task_id = ?1)", nativeQuery = true)
+    int addToTaskOwnerBuckets(Long taskId, LocalDate completedOn, int delta);
+
+    //a bucket holding the one completion for every owner that has none yet
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "completion_buckets"))
+    @Query(value = "insert into completion_buckets (user_id, completed_on, project_id, completed) " +
+            "select ut.user_id, ?2, coalesce(t.project_id, 0), 1 from user_tasks ut " +
+            "join tasks t on t.id = ut.task_id where ut.task_id = ?1 " +
+            "and not exists (select 1 from completion_buckets b where b.user_id = ut.user_id " +
+            "and b.completed_on = ?2 and b.project_id = coalesce(t.project_id, 0))", nativeQuery = true)
+    int insertMissingTaskOwnerBuckets(Long taskId, LocalDate completedOn);
+
+    @Modifying
+    @Query("delete from CompletionBucket b where b.projectId = ?1")
+    int deleteByProjectId(Long projectId);
+
+    @Modifying
+    @Query("delete from CompletionBucket b where b.userId = ?1")
+    int deleteByUserId(Long userId);
+
+    @Query("select new com.lazy.todo.payload.response.CompletionCount(b.completedOn, sum(b.completed)) " +
+            "from CompletionBucket b where b.userId = ?1 and b.completedOn between ?2 and ?3 " +
+            "group by b.completedOn having sum(b.completed) > 0 order by b.completedOn")
+    List<CompletionCount> findDailyByUserId(Long userId, LocalDate from, LocalDate to);
+
+    @Query("select new com.lazy.todo.payload.response.CompletionCount(b.completedOn, sum(b.completed)) " +
+            "from CompletionBucket b where b.userId = ?1 and b.projectId = ?4 and b.completedOn between ?2 and ?3 " +
+            "group by b.completedOn having sum(b.completed) > 0 order by b.completedOn")
+    List<CompletionCount> findDailyByUserIdAndProjectId(Long userId, LocalDate from, LocalDate to, Long projectId);
+
+    @Query("select new com.lazy.todo.payload.response.ProjectCompletions(b.projectId, sum(b.completed)) " +
+            "from CompletionBucket b where b.userId = ?1 and b.completedOn between ?2 and ?3 " +
+            "group by b.projectId having sum(b.completed) > 0 order by b.projectId")
+    List<ProjectCompletions> findProjectTotalsByUserId(Long userId, LocalDate from, LocalDate to);
+}
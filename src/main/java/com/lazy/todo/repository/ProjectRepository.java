@@ -1,20 +1,42 @@
 package com.lazy.todo.repository;
 
 import com.lazy.todo.models.Project;
+import com.lazy.todo.payload.response.ProjectSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import javax.transaction.Transactional;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface ProjectRepository extends JpaRepository<Project, Long> {
 
+    //list queries select straight into ProjectSummary, so no managed Project is loaded
+    String SELECT_SUMMARY = "select new com.lazy.todo.payload.response.ProjectSummary(p.id, p.title, p.description, " +
+            "p.startLocalDate, p.targetLocalDate, p.checked, p.priority) ";
+
+    //keyset page on the (owner_id, priority, id) index, the pageable only supplies the limit
+    @Query(SELECT_SUMMARY + "from Project p where p.owner.id = ?1 " +
+            "and (p.priority > ?2 or (p.priority = ?2 and p.id > ?3)) order by p.priority, p.id")
+    List<ProjectSummary> findPageByOwnerId(Long ownerId, int priority, Long id, Pageable pageable);
+
+    @Query(SELECT_SUMMARY + "from Project p where p.owner.id = ?1 order by p.priority, p.id")
+    List<ProjectSummary> findSummariesByOwnerId(Long ownerId);
+
+    //ownership check on projects.owner_id without loading the owner's project list
+    boolean existsByIdAndOwner_Id(Long id, Long ownerId);
+
+    //the same check for a whole batch, compare the result with the number of distinct ids
+    long countByOwner_IdAndIdIn(Long ownerId, Collection<Long> ids);
+
+    long countByIdIn(Collection<Long> ids);
 
     @Transactional
     @Modifying
-    @Query("delete from Task t where t.id = ?1")
+    @Query("delete from Project p where p.id = ?1")
     void delete(Long entityId);
 }
@@ -0,0 +1,33 @@
+package com.lazy.todo.repository;
+
+import com.lazy.todo.models.RefreshToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import javax.transaction.Transactional;
+import java.time.Instant;
+import java.util.Optional;
+
+@Repository
+public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
+
+    Optional<RefreshToken> findByTokenHash(String tokenHash);
+
+    //returns 0 if another request already used this token
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken r where r.id = ?1")
+    int deleteUsed(Long id);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken r where r.user.id in (select u.id from User u where u.username = ?1)")
+    int deleteAllByUsername(String username);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RefreshToken r where r.expiryDate < ?1")
+    int deleteExpiredBefore(Instant cutoff);
+}
@@ -0,0 +1,22 @@
+package com.lazy.todo.repository;
+
+import com.lazy.todo.models.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import javax.transaction.Transactional;
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, Long> {
+
+    List<RevokedToken> findByRevokedAtGreaterThanEqual(Instant since);
+
+    @Transactional
+    @Modifying
+    @Query("delete from RevokedToken r where r.revokedAt < ?1")
+    int deleteRevokedBefore(Instant cutoff);
+}
@@ -4,11 +4,16 @@ import java.util.Optional;
 
 import com.lazy.todo.models.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.stereotype.Repository;
 
 import com.lazy.todo.models.ERole;
 
+import javax.persistence.QueryHint;
+
 @Repository
 public interface RoleRepository extends JpaRepository<Role, Long> {
+  //runs on every signup, the result comes from the query cache and the role itself from the roles region
+  @QueryHints(@QueryHint(name = "org.hibernate.cacheable", value = "true"))
   Optional<Role> findByName(ERole name);
 }
@@ -3,23 +3,79 @@ package com.lazy.todo.repository;
 import com.lazy.todo.models.ERole;
 import com.lazy.todo.models.Role;
 import com.lazy.todo.models.Task;
+import com.lazy.todo.payload.response.TaskSummary;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
 import javax.transaction.Transactional;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
 public interface TaskRepository extends JpaRepository<Task, Long> {
 
+    //list queries select straight into TaskSummary, so no managed Task or eager project is loaded
+    String SELECT_SUMMARY = "select new com.lazy.todo.payload.response.TaskSummary(t.id, t.title, t.description, " +
+            "t.startDate, t.targetDate, t.completedOn, t.checked, t.priority, t.projectPriority) ";
+
     Optional<Task> findById(Task task);
 
+    //keyset page: the rows after (priority, id), the pageable only supplies the limit. the user's links are sorted
+    //for every page, no index hands them back in (priority, id) order
+    @Query(SELECT_SUMMARY + "from User u join u.tasks t where u.id = ?1 " +
+            "and (t.priority > ?2 or (t.priority = ?2 and t.id > ?3)) order by t.priority, t.id")
+    List<TaskSummary> findPageByUserId(Long userId, int priority, Long id, Pageable pageable);
+
+    //ownership check against the user_tasks key, without loading the user's task collection
+    @Query("select case when count(t) > 0 then true else false end from User u join u.tasks t where u.id = ?1 and t.id = ?2")
+    boolean existsByUserIdAndTaskId(Long userId, Long taskId);
+
+    //the same check for a whole batch, compare the result with the number of distinct ids
+    @Query("select count(t) from User u join u.tasks t where u.id = ?1 and t.id in ?2")
+    long countOwnedByUserId(Long userId, Collection<Long> taskIds);
+
+    long countByIdIn(Collection<Long> ids);
+
+    //a project's open tasks and those completed after the given day, served from idx_tasks_project_current
+    @Query(SELECT_SUMMARY + "from Task t where t.project.id = ?1 and (t.checked is null or t.completedOn > ?2) order by t.priority")
+    List<TaskSummary> findCurrentByProjectId(Long projectId, LocalDate completedAfter);
+
+    //the same for the user's tasks that are not in a project
+    @Query(SELECT_SUMMARY + "from User u join u.tasks t where u.id = ?1 and t.project is null " +
+            "and (t.checked is null or t.completedOn > ?2) order by t.priority")
+    List<TaskSummary> findCurrentByUserId(Long userId, LocalDate completedAfter);
+
+    //tasks the user has completed after the given day, the date is worked out in java so this runs on any database
+    @Query("select count(t) from User u join u.tasks t where u.id = ?1 and t.checked is not null and t.completedOn > ?2")
+    long countCompletedByUserIdSince(Long userId, LocalDate completedAfter);
+
+    //user_tasks has no entity of its own, so its rows are removed with plain sql before the tasks go.
+    //the native spaces hint names the table, otherwise hibernate empties every second-level cache region
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "user_tasks"))
+    @Query(value = "delete from user_tasks where task_id = ?1", nativeQuery = true)
+    int deleteUserLinksByTaskId(Long taskId);
+
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "user_tasks"))
+    @Query(value = "delete from user_tasks where task_id in (select t.id from tasks t where t.project_id = ?1)", nativeQuery = true)
+    int deleteUserLinksByProjectId(Long projectId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from Task t where t.project.id = ?1")
+    int deleteByProjectId(Long projectId);
 
     @Transactional
     @Modifying
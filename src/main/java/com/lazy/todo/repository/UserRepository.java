@@ -20,4 +20,8 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
   Boolean existsByEmail(String email);
 
+  //used for tokens issued before the uid claim, where all we have is the username
+  @Query("select u.id from User u where u.username = ?1")
+  Optional<Long> findIdByUsername(String username);
+
 }
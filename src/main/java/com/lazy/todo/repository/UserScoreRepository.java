@@ -0,0 +1,58 @@
+package com.lazy.todo.repository;
+
+import com.lazy.todo.models.UserScore;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.QueryHint;
+import javax.transaction.Transactional;
+import java.time.LocalDate;
+
+@Repository
+public interface UserScoreRepository extends JpaRepository<UserScore, Long> {
+
+    //users without a row yet are left alone, their score is counted on read until the next reconcile
+    @Modifying
+    @Query("update UserScore s set s.score = s.score + ?2 where s.userId in " +
+            "(select u.id from User u join u.tasks t where t.id = ?1)")
+    int addToScoreOfTaskOwners(Long taskId, long delta);
+
+    //run before a project's tasks are bulk deleted, its completions in the window come off each owner's score
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "user_scores"))
+    @Query(value = "update user_scores set score = score - " +
+            "(select count(t.id) from user_tasks ut join tasks t on t.id = ut.task_id " +
+            "where ut.user_id = user_scores.user_id and t.project_id = ?1 " +
+            "and t.checked is not null and t.completed_on > ?2) " +
+            "where user_id in (select ut.user_id from user_tasks ut join tasks t on t.id = ut.task_id " +
+            "where t.project_id = ?1)", nativeQuery = true)
+    int subtractProjectCompletionsSince(Long projectId, LocalDate completedAfter);
+
+    //recounts every existing row in place, each row is locked only while its own count is written
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "user_scores"))
+    @Query(value = "update user_scores set score = " +
+            "(select count(t.id) from user_tasks ut join tasks t on t.id = ut.task_id " +
+            "where ut.user_id = user_scores.user_id and t.checked is not null and t.completed_on > ?1)",
+            nativeQuery = true)
+    int updateCompletedCountsSince(LocalDate completedAfter);
+
+    @Transactional
+    @Modifying
+    @QueryHints(@QueryHint(name = "org.hibernate.query.native.spaces", value = "user_scores"))
+    @Query(value = "insert into user_scores (user_id, score) " +
+            "select u.id, count(t.id) from users u " +
+            "left join user_tasks ut on ut.user_id = u.id " +
+            "left join tasks t on t.id = ut.task_id and t.checked is not null and t.completed_on > ?1 " +
+            "where not exists (select 1 from user_scores s where s.user_id = u.id) " +
+            "group by u.id", nativeQuery = true)
+    int insertMissingCompletedCountsSince(LocalDate completedAfter);
+
+    @Modifying
+    @Query("delete from UserScore s where s.userId = ?1")
+    int deleteByUserId(Long userId);
+}
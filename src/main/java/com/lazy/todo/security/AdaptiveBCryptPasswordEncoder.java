@@ -0,0 +1,80 @@
+package com.lazy.todo.security;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.crypto.bcrypt.BCrypt;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+/**
+ * BCrypt encoder whose cost is picked at startup so one hash takes roughly a target time on this machine.
+ * A stored hash below the configured floor cost is reported as needing an upgrade, so DaoAuthenticationProvider
+ * re-encodes it on the next successful signin. Hashes at or above the floor are left alone, nodes of different
+ * sizes calibrate different costs and must not keep re-hashing each other's passwords.
+ */
+public class AdaptiveBCryptPasswordEncoder extends BCryptPasswordEncoder {
+  private static final Logger logger = LoggerFactory.getLogger(AdaptiveBCryptPasswordEncoder.class);
+
+  //the cost bcrypt itself accepts
+  public static final int MIN_COST = 4;
+
+  public static final int MAX_COST = 31;
+
+  private static final int SAMPLE_COST = 8;
+
+  private final int strength;
+
+  private final int upgradeBelowCost;
+
+  public AdaptiveBCryptPasswordEncoder(int strength, int upgradeBelowCost) {
+    super(strength);
+    this.strength = strength;
+    //re-encoding at our own cost has to actually lift the hash over the floor
+    this.upgradeBelowCost = Math.min(upgradeBelowCost, strength);
+  }
+
+  //each extra cost doubles the work, so time one cheap hash and scale up to the largest cost within the target
+  public static int calibrate(long targetMs, int minCost, int maxCost) {
+    String salt = BCrypt.gensalt(SAMPLE_COST);
+    long best = Long.MAX_VALUE;
+    for (int i = 0; i < 3; i++) {
+      long start = System.nanoTime();
+      BCrypt.hashpw("calibration", salt);
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    double sampleMs = Math.max(best / 1_000_000.0, 0.001);
+    int cost = SAMPLE_COST;
+    while (cost < maxCost && sampleMs * Math.pow(2, cost + 1 - SAMPLE_COST) <= targetMs) {
+      cost++;
+    }
+    while (cost > minCost && sampleMs * Math.pow(2, cost - SAMPLE_COST) > targetMs) {
+      cost--;
+    }
+    cost = Math.max(minCost, Math.min(maxCost, cost));
+    logger.info("BCrypt cost {} chosen for a {}ms target (cost {} took {}ms)", cost, targetMs, SAMPLE_COST,
+        String.format("%.2f", sampleMs));
+    return cost;
+  }
+
+  @Override
+  public boolean upgradeEncoding(String encodedPassword) {
+    Integer cost = getCost(encodedPassword);
+    return cost != null && cost < upgradeBelowCost;
+  }
+
+  public int getStrength() {
+    return strength;
+  }
+
+  //"$2a$10$..." -> 10, or null if this is not a bcrypt hash we can read
+  private static Integer getCost(String encodedPassword) {
+    if (encodedPassword == null || encodedPassword.length() < 7 || encodedPassword.charAt(0) != '$'
+        || encodedPassword.charAt(3) != '$' || encodedPassword.charAt(6) != '$') {
+      return null;
+    }
+    try {
+      return Integer.parseInt(encodedPassword.substring(4, 6));
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+}
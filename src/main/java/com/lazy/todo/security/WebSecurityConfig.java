@@ -3,6 +3,7 @@ package com.lazy.todo.security;
 import com.lazy.todo.security.jwt.AuthTokenFilter;
 import com.lazy.todo.security.services.UserDetailsServiceImpl;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.EnableCaching;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -18,7 +19,6 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 //import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 //import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
@@ -40,6 +40,15 @@ public class WebSecurityConfig {
   @Autowired
   private AuthEntryPointJwt unauthorizedHandler;
 
+  @Value("${lazy.app.bcryptTargetMs:0}")
+  private long bcryptTargetMs;
+
+  @Value("${lazy.app.bcryptMinCost:8}")
+  private int bcryptMinCost;
+
+  @Value("${lazy.app.bcryptMaxCost:14}")
+  private int bcryptMaxCost;
+
   @Bean
   public AuthTokenFilter authenticationJwtTokenFilter() {
     return new AuthTokenFilter();
@@ -51,6 +60,8 @@ public class WebSecurityConfig {
        
       authProvider.setUserDetailsService(userDetailsService);
       authProvider.setPasswordEncoder(passwordEncoder());
+      //rehashes the password on signin when its stored cost is below bcryptMinCost, never to a lower cost
+      authProvider.setUserDetailsPasswordService(userDetailsService);
    
       return authProvider;
   }
@@ -62,7 +73,11 @@ public class WebSecurityConfig {
 
   @Bean
   public PasswordEncoder passwordEncoder() {
-    return new BCryptPasswordEncoder();
+    //without a target hash time keep bcrypt's default cost of 10
+    int strength = bcryptTargetMs > 0
+        ? AdaptiveBCryptPasswordEncoder.calibrate(bcryptTargetMs, bcryptMinCost, bcryptMaxCost)
+        : 10;
+    return new AdaptiveBCryptPasswordEncoder(strength, bcryptMinCost);
   }
 
   
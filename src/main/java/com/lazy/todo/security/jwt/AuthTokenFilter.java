@@ -1,42 +1,49 @@
 package com.lazy.todo.security.jwt;
 
 import java.io.IOException;
+import java.util.stream.Collectors;
 
 import javax.servlet.FilterChain;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
 
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.util.StringUtils;
 import org.springframework.web.filter.OncePerRequestFilter;
 
-import com.lazy.todo.security.services.UserDetailsServiceImpl;
+import com.lazy.todo.security.services.UserDetailsCache;
+import com.lazy.todo.security.services.UserDetailsImpl;
 
 public class AuthTokenFilter extends OncePerRequestFilter {
   @Autowired
   private JwtUtils jwtUtils;
 
   @Autowired
-  private UserDetailsServiceImpl userDetailsService;
+  private UserDetailsCache userDetailsCache;
 
-  private static final Logger logger = LoggerFactory.getLogger(AuthTokenFilter.class);
+  @Autowired
+  private JwtRejectionLogger rejectionLogger;
 
   @Override
   protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
       throws ServletException, IOException {
     try {
       String jwt = parseJwt(request);
-      if (jwt != null && jwtUtils.validateJwtToken(jwt)) {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
+      VerifiedJwt verifiedJwt = jwt != null ? jwtUtils.parseJwtToken(jwt) : null;
+      if (verifiedJwt != null) {
+        //keep the parsed token for the rest of the request so nothing downstream has to verify it again
+        request.setAttribute(VerifiedJwt.REQUEST_ATTRIBUTE, verifiedJwt);
+        String username = verifiedJwt.getUsername();
 
-        UserDetails userDetails = userDetailsService.loadUserByUsername(username);
+        UserDetails userDetails = verifiedJwt.hasUserClaims()
+            ? buildUserDetails(verifiedJwt)
+            : userDetailsCache.get(username);
         UsernamePasswordAuthenticationToken authentication =
             new UsernamePasswordAuthenticationToken(
                 userDetails,
@@ -47,12 +54,24 @@ public class AuthTokenFilter extends OncePerRequestFilter {
         SecurityContextHolder.getContext().setAuthentication(authentication);
       }
     } catch (Exception e) {
-      logger.error("Cannot set user authentication: {}", e);
+      rejectionLogger.reject(RejectionReason.AUTHENTICATION_FAILED, e.toString());
     }
 
     filterChain.doFilter(request, response);
   }
 
+  //tokens carrying id and roles claims are authenticated straight from the token, without a user lookup
+  private UserDetails buildUserDetails(VerifiedJwt verifiedJwt) {
+    return new UserDetailsImpl(
+        verifiedJwt.getUserId(),
+        verifiedJwt.getUsername(),
+        null,
+        null,
+        verifiedJwt.getRoles().stream()
+            .map(SimpleGrantedAuthority::new)
+            .collect(Collectors.toList()));
+  }
+
   private String parseJwt(HttpServletRequest request) {
     String headerAuth = request.getHeader("Authorization");
 
@@ -0,0 +1,108 @@
+package com.lazy.todo.security.jwt;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Remembers tokens that have already passed signature verification, so a client re-sending the same bearer token
+ * skips the HMAC and JSON work. Entries are keyed by a SHA-256 digest of the token (the raw token is never used as
+ * a key) and never outlive the token's own expiry.
+ */
+@Component
+public class JwtClaimsCache {
+
+  private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  });
+
+  private final Cache<String, VerifiedJwt> cache;
+
+  @Autowired(required = false)
+  private MeterRegistry meterRegistry;
+
+  public JwtClaimsCache(@Value("${lazy.app.jwtCacheMaxSize:10000}") long maxSize,
+      @Value("${lazy.app.jwtCacheTtlMs:300000}") long ttlMs) {
+    long ttlNanos = TimeUnit.MILLISECONDS.toNanos(ttlMs);
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfter(new Expiry<String, VerifiedJwt>() {
+          @Override
+          public long expireAfterCreate(String key, VerifiedJwt value, long currentTime) {
+            long untilExpiry = TimeUnit.MILLISECONDS.toNanos(value.getExpiration().getTime() - System.currentTimeMillis());
+            return Math.max(0, Math.min(ttlNanos, untilExpiry));
+          }
+
+          @Override
+          public long expireAfterUpdate(String key, VerifiedJwt value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+          }
+
+          @Override
+          public long expireAfterRead(String key, VerifiedJwt value, long currentTime, long currentDuration) {
+            return currentDuration;
+          }
+        })
+        .recordStats()
+        .build();
+  }
+
+  @PostConstruct
+  public void bindMetrics() {
+    if (meterRegistry != null) {
+      CaffeineCacheMetrics.monitor(meterRegistry, cache, "jwtClaims");
+    }
+  }
+
+  //returns the previously verified token, or null if it has to be parsed (again)
+  public VerifiedJwt get(String token) {
+    String key = digest(token);
+    VerifiedJwt verifiedJwt = cache.getIfPresent(key);
+    //expiry eviction is not instantaneous, so never hand out a token that has passed its exp
+    if (verifiedJwt != null && verifiedJwt.getExpiration().getTime() <= System.currentTimeMillis()) {
+      cache.invalidate(key);
+      return null;
+    }
+    return verifiedJwt;
+  }
+
+  public void put(VerifiedJwt verifiedJwt) {
+    if (verifiedJwt.getExpiration() == null) {
+      return;
+    }
+    cache.put(digest(verifiedJwt.getToken()), verifiedJwt);
+  }
+
+  public long getHitCount() {
+    return cache.stats().hitCount();
+  }
+
+  public long getMissCount() {
+    return cache.stats().missCount();
+  }
+
+  private static String digest(String token) {
+    MessageDigest messageDigest = SHA_256.get();
+    messageDigest.reset();
+    return Base64.getEncoder().encodeToString(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+  }
+}
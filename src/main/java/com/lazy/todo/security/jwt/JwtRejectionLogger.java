@@ -0,0 +1,87 @@
+package com.lazy.todo.security.jwt;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.annotation.PostConstruct;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Records rejected bearer tokens. Every rejection is counted per reason, but at most one line per reason is logged
+ * each interval, together with how many were suppressed since the last line, so a fleet of clients retrying with
+ * stale tokens cannot turn into a log storm.
+ */
+@Component
+public class JwtRejectionLogger {
+  private static final Logger logger = LoggerFactory.getLogger(JwtRejectionLogger.class);
+
+  private final long intervalNanos;
+
+  private final Map<RejectionReason, LongAdder> rejected = new EnumMap<>(RejectionReason.class);
+
+  private final Map<RejectionReason, LongAdder> suppressed = new EnumMap<>(RejectionReason.class);
+
+  private final Map<RejectionReason, AtomicLong> nextLogAt = new EnumMap<>(RejectionReason.class);
+
+  @Autowired(required = false)
+  private MeterRegistry meterRegistry;
+
+  public JwtRejectionLogger(@Value("${lazy.app.jwtRejectLogIntervalMs:60000}") long intervalMs) {
+    this.intervalNanos = TimeUnit.MILLISECONDS.toNanos(intervalMs);
+    long now = System.nanoTime();
+    for (RejectionReason reason : RejectionReason.values()) {
+      rejected.put(reason, new LongAdder());
+      suppressed.put(reason, new LongAdder());
+      nextLogAt.put(reason, new AtomicLong(now));
+    }
+  }
+
+  @PostConstruct
+  public void bindMetrics() {
+    if (meterRegistry == null) {
+      return;
+    }
+    for (RejectionReason reason : RejectionReason.values()) {
+      FunctionCounter.builder("jwt.rejected", rejected.get(reason), LongAdder::sum)
+          .description("Bearer tokens that were not accepted")
+          .tag("reason", reason.getTag())
+          .register(meterRegistry);
+    }
+  }
+
+  public void reject(RejectionReason reason, String detail) {
+    rejected.get(reason).increment();
+    if (!logger.isWarnEnabled()) {
+      return;
+    }
+    //only the thread that moves the window forward writes a line, everyone else just counts
+    AtomicLong next = nextLogAt.get(reason);
+    long now = System.nanoTime();
+    long due = next.get();
+    if (now - due < 0 || !next.compareAndSet(due, now + intervalNanos)) {
+      suppressed.get(reason).increment();
+      return;
+    }
+    long skipped = suppressed.get(reason).sumThenReset();
+    if (skipped > 0) {
+      logger.warn("Rejected JWT ({}): {} ({} more suppressed)", reason.getTag(), detail, skipped);
+    } else {
+      logger.warn("Rejected JWT ({}): {}", reason.getTag(), detail);
+    }
+  }
+
+  public long getRejectedCount(RejectionReason reason) {
+    return rejected.get(reason).sum();
+  }
+}
@@ -1,20 +1,31 @@
 package com.lazy.todo.security.jwt;
 
+import java.security.Key;
 import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.annotation.PostConstruct;
+import javax.crypto.spec.SecretKeySpec;
 
 import com.lazy.todo.models.User;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.Authentication;
 import org.springframework.stereotype.Component;
 
 import com.lazy.todo.security.services.UserDetailsImpl;
 import io.jsonwebtoken.*;
+import io.jsonwebtoken.impl.TextCodec;
 
 @Component
 public class JwtUtils {
-  private static final Logger logger = LoggerFactory.getLogger(JwtUtils.class);
+  public static final String USER_ID_CLAIM = "uid";
+
+  public static final String ROLES_CLAIM = "roles";
+
+  //iat only holds whole seconds, this carries the issue time in millis so it compares exactly with a revocation
+  public static final String ISSUED_AT_MILLIS_CLAIM = "iatms";
 
   @Value("${lazy.app.jwtSecret}")
   private String jwtSecret;
@@ -25,15 +36,45 @@ public class JwtUtils {
   @Value("${lazy.app.resetExpirationMs}")
   private int resetExpirationMs;
 
+  @Autowired
+  private JwtClaimsCache claimsCache;
+
+  @Autowired
+  private JwtRejectionLogger rejectionLogger;
+
+  @Autowired
+  private TokenRevocationList revocationList;
+
+  //decoded once at startup, the parser only reads its configuration so one instance is shared by all requests
+  private Key signingKey;
+
+  private JwtParser jwtParser;
+
+  @PostConstruct
+  public void init() {
+    signingKey = new SecretKeySpec(TextCodec.BASE64.decode(jwtSecret), SignatureAlgorithm.HS512.getJcaName());
+    jwtParser = Jwts.parser().setSigningKey(signingKey);
+  }
+
   public String generateJwtToken(Authentication authentication) {
+    return generateJwtToken((UserDetailsImpl) authentication.getPrincipal());
+  }
 
-    UserDetailsImpl userPrincipal = (UserDetailsImpl) authentication.getPrincipal();
+  public String generateJwtToken(UserDetailsImpl userPrincipal) {
+    List<String> roles = userPrincipal.getAuthorities().stream()
+        .map(item -> item.getAuthority())
+        .collect(Collectors.toList());
 
+    //carry the id and roles so authenticated requests don't need to look the user up
+    Date now = new Date();
     return Jwts.builder()
         .setSubject((userPrincipal.getUsername()))
-        .setIssuedAt(new Date())
-        .setExpiration(new Date((new Date()).getTime() + jwtExpirationMs))
-        .signWith(SignatureAlgorithm.HS512, jwtSecret)
+        .claim(USER_ID_CLAIM, userPrincipal.getId())
+        .claim(ROLES_CLAIM, roles)
+        .claim(ISSUED_AT_MILLIS_CLAIM, now.getTime())
+        .setIssuedAt(now)
+        .setExpiration(new Date(now.getTime() + jwtExpirationMs))
+        .signWith(SignatureAlgorithm.HS512, signingKey)
         .compact();
   }
 
@@ -44,31 +85,78 @@ public class JwtUtils {
             .setSubject((userPrincipal.getUsername()))
             .setIssuedAt(new Date())
             .setExpiration(new Date((new Date()).getTime() + resetExpirationMs))
-            .signWith(SignatureAlgorithm.HS512, jwtSecret)
+            .signWith(SignatureAlgorithm.HS512, signingKey)
             .compact();
   }
 
   public String getUserNameFromJwtToken(String token) {
-    return Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(token).getBody().getSubject();
+    return jwtParser.parseClaimsJws(token).getBody().getSubject();
   }
 
   public boolean validateJwtToken(String authToken) {
+    return parseJwtToken(authToken) != null;
+  }
+
+  //verify the signature and expiry once, returning the claims we need downstream or null if the token is invalid
+  public VerifiedJwt parseJwtToken(String authToken) {
+    if (authToken == null) {
+      return null;
+    }
+    VerifiedJwt cached = claimsCache.get(authToken);
+    if (cached != null) {
+      return notRevoked(cached);
+    }
     try {
-      Jwts.parser().setSigningKey(jwtSecret).parseClaimsJws(authToken);
-      return true;
+      Claims claims = jwtParser.parseClaimsJws(authToken).getBody();
+      VerifiedJwt verifiedJwt = new VerifiedJwt(authToken, claims.getSubject(), getUserId(claims), getRoles(claims),
+          getIssuedAt(claims), claims.getExpiration());
+      claimsCache.put(verifiedJwt);
+      return notRevoked(verifiedJwt);
     } catch (SignatureException e) {
-      logger.error("Invalid JWT signature: {}", e.getMessage());
+      rejectionLogger.reject(RejectionReason.BAD_SIGNATURE, e.getMessage());
     } catch (MalformedJwtException e) {
-      logger.error("Invalid JWT token: {}", e.getMessage());
+      rejectionLogger.reject(RejectionReason.MALFORMED, e.getMessage());
     } catch (ExpiredJwtException e) {
-      logger.error("JWT token is expired: {}", e.getMessage());
+      rejectionLogger.reject(RejectionReason.EXPIRED, e.getMessage());
     } catch (UnsupportedJwtException e) {
-      logger.error("JWT token is unsupported: {}", e.getMessage());
+      rejectionLogger.reject(RejectionReason.UNSUPPORTED, e.getMessage());
     } catch (IllegalArgumentException e) {
-      logger.error("JWT claims string is empty: {}", e.getMessage());
+      rejectionLogger.reject(RejectionReason.EMPTY, e.getMessage());
+    } catch (JwtException e) {
+      //signed by us but with a claim of the wrong type (e.g. a non-numeric uid), still not a token we accept
+      rejectionLogger.reject(RejectionReason.MALFORMED, e.getMessage());
+    }
+
+    return null;
+  }
+
+  //a revoked token still verifies, so this is checked on every use, cached or not
+  private VerifiedJwt notRevoked(VerifiedJwt verifiedJwt) {
+    if (revocationList.isRevoked(verifiedJwt)) {
+      rejectionLogger.reject(RejectionReason.REVOKED, "token was issued before its user's tokens were revoked");
+      return null;
     }
+    return verifiedJwt;
+  }
+
+  //tokens issued before the uid claim was added simply return null here
+  private Long getUserId(Claims claims) {
+    Number userId = claims.get(USER_ID_CLAIM, Number.class);
+    return userId != null ? userId.longValue() : null;
+  }
 
-    return false;
+  //tokens issued before the millis claim was added fall back to the whole-second iat
+  private Date getIssuedAt(Claims claims) {
+    Number issuedAtMillis = claims.get(ISSUED_AT_MILLIS_CLAIM, Number.class);
+    return issuedAtMillis != null ? new Date(issuedAtMillis.longValue()) : claims.getIssuedAt();
+  }
+
+  private List<String> getRoles(Claims claims) {
+    List<?> roles = claims.get(ROLES_CLAIM, List.class);
+    if (roles == null) {
+      return null;
+    }
+    return roles.stream().map(String::valueOf).collect(Collectors.toList());
   }
 
 }
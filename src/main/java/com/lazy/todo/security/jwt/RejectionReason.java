@@ -0,0 +1,26 @@
+package com.lazy.todo.security.jwt;
+
+/**
+ * Why a bearer token was not accepted. The tag is used as the "reason" tag on the jwt.rejected counter.
+ */
+public enum RejectionReason {
+  EXPIRED("expired"),
+  BAD_SIGNATURE("bad_signature"),
+  MALFORMED("malformed"),
+  UNSUPPORTED("unsupported"),
+  EMPTY("empty"),
+  //valid signature, but issued before its user's tokens were revoked
+  REVOKED("revoked"),
+  //the token itself was fine but the user behind it could not be authenticated
+  AUTHENTICATION_FAILED("authentication_failed");
+
+  private final String tag;
+
+  RejectionReason(String tag) {
+    this.tag = tag;
+  }
+
+  public String getTag() {
+    return tag;
+  }
+}
@@ -0,0 +1,104 @@
+package com.lazy.todo.security.jwt;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory view of the revoked_tokens table, checked for every authenticated request. A small Bloom filter answers
+ * "definitely not revoked" for almost every token without touching the map. Only usernames that might be revoked
+ * are looked up in the exact map, which holds the latest revocation time per user.
+ */
+@Component
+public class TokenRevocationList {
+
+  private final int bloomBits;
+
+  private final Map<String, Long> revokedAt = new ConcurrentHashMap<>();
+
+  //bits can only be set, so pruning swaps in a freshly built filter
+  private volatile BloomFilter bloomFilter;
+
+  public TokenRevocationList(@Value("${lazy.app.revocationBloomBits:65536}") int bloomBits) {
+    this.bloomBits = bloomBits;
+    this.bloomFilter = new BloomFilter(bloomBits);
+  }
+
+  public boolean isRevoked(VerifiedJwt jwt) {
+    if (revokedAt.isEmpty() || jwt.getIssuedAt() == null || !bloomFilter.mightContain(jwt.getUsername())) {
+      return false;
+    }
+    Long revokedAtMillis = revokedAt.get(jwt.getUsername());
+    //both sides are in millis, so a token issued just after the revocation is accepted. only older tokens without
+    //the millis claim are compared on their whole-second iat, which rejects them for the rest of that second
+    return revokedAtMillis != null && jwt.getIssuedAt().getTime() <= revokedAtMillis;
+  }
+
+  //writers are rare, so they are serialised against pruning while reads stay lock free
+  public synchronized void revoke(String username, long revokedAtMillis) {
+    //the filter bit goes first so a concurrent check never finds the map entry hidden behind a clear bit
+    bloomFilter.add(username);
+    revokedAt.merge(username, revokedAtMillis, Math::max);
+  }
+
+  //forget revocations older than the longest token lifetime, every token they could match has expired anyway
+  public synchronized void prune(long cutoffMillis) {
+    revokedAt.values().removeIf(millis -> millis < cutoffMillis);
+    BloomFilter rebuilt = new BloomFilter(bloomBits);
+    revokedAt.keySet().forEach(rebuilt::add);
+    bloomFilter = rebuilt;
+  }
+
+  public int size() {
+    return revokedAt.size();
+  }
+
+  private static final class BloomFilter {
+    private static final int HASHES = 3;
+
+    private final AtomicLongArray words;
+
+    private final int mask;
+
+    BloomFilter(int bits) {
+      int size = Integer.highestOneBit(Math.max(bits, 64) - 1) << 1;
+      this.words = new AtomicLongArray(size >>> 6);
+      this.mask = size - 1;
+    }
+
+    void add(String key) {
+      int hash = key.hashCode();
+      int step = mix(hash);
+      for (int i = 0; i < HASHES; i++) {
+        int bit = (hash + i * step) & mask;
+        long bitMask = 1L << bit;
+        int index = bit >>> 6;
+        long word;
+        do {
+          word = words.get(index);
+        } while ((word & bitMask) == 0 && !words.compareAndSet(index, word, word | bitMask));
+      }
+    }
+
+    boolean mightContain(String key) {
+      int hash = key.hashCode();
+      int step = mix(hash);
+      for (int i = 0; i < HASHES; i++) {
+        int bit = (hash + i * step) & mask;
+        if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    //a second, independent-enough hash for double hashing; forced odd so it walks every bit
+    private static int mix(int hash) {
+      int h = hash * 0x9E3779B9;
+      return (h ^ (h >>> 16)) | 1;
+    }
+  }
+}
@@ -0,0 +1,69 @@
+package com.lazy.todo.security.jwt;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * The result of verifying a JWT once. The filter stores it as a request attribute so controllers and services
+ * can read the caller's identity without parsing the token again.
+ */
+public class VerifiedJwt {
+
+  public static final String REQUEST_ATTRIBUTE = VerifiedJwt.class.getName();
+
+  private final String token;
+
+  private final String username;
+
+  //null for tokens issued before the uid/roles claims were added
+  private final Long userId;
+
+  private final List<String> roles;
+
+  private final Date issuedAt;
+
+  private final Date expiration;
+
+  public VerifiedJwt(String token, String username, Date issuedAt, Date expiration) {
+    this(token, username, null, null, issuedAt, expiration);
+  }
+
+  public VerifiedJwt(String token, String username, Long userId, List<String> roles, Date issuedAt, Date expiration) {
+    this.token = token;
+    this.username = username;
+    this.userId = userId;
+    this.roles = roles != null ? Collections.unmodifiableList(roles) : null;
+    this.issuedAt = issuedAt;
+    this.expiration = expiration;
+  }
+
+  //true if the token carries everything needed to authenticate without looking the user up
+  public boolean hasUserClaims() {
+    return userId != null && roles != null;
+  }
+
+  public String getToken() {
+    return token;
+  }
+
+  public String getUsername() {
+    return username;
+  }
+
+  public Long getUserId() {
+    return userId;
+  }
+
+  public List<String> getRoles() {
+    return roles;
+  }
+
+  public Date getIssuedAt() {
+    return issuedAt;
+  }
+
+  public Date getExpiration() {
+    return expiration;
+  }
+}
@@ -0,0 +1,54 @@
+package com.lazy.todo.security.jwt;
+
+import javax.servlet.http.HttpServletRequest;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Supplies controller methods with the {@link VerifiedJwt} produced by {@link AuthTokenFilter}. If the filter did
+ * not run (e.g. MockMvc without filters) the Authorization header is parsed here instead, still only once per request.
+ * Resolves to null when the request carries no valid token.
+ */
+@Component
+public class VerifiedJwtArgumentResolver implements HandlerMethodArgumentResolver {
+
+  @Autowired
+  private JwtUtils jwtUtils;
+
+  @Override
+  public boolean supportsParameter(MethodParameter parameter) {
+    return VerifiedJwt.class.equals(parameter.getParameterType());
+  }
+
+  @Override
+  public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+      NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+    HttpServletRequest request = webRequest.getNativeRequest(HttpServletRequest.class);
+    if (request == null) {
+      return null;
+    }
+
+    Object verified = request.getAttribute(VerifiedJwt.REQUEST_ATTRIBUTE);
+    if (verified instanceof VerifiedJwt) {
+      return verified;
+    }
+
+    //controllers have always accepted any 7 character prefix ("Bearer ", "bearer:"), so keep doing the same here
+    String headerAuth = request.getHeader("Authorization");
+    if (!StringUtils.hasText(headerAuth) || headerAuth.length() <= 7) {
+      return null;
+    }
+    VerifiedJwt verifiedJwt = jwtUtils.parseJwtToken(headerAuth.substring(7));
+    if (verifiedJwt != null) {
+      request.setAttribute(VerifiedJwt.REQUEST_ATTRIBUTE, verifiedJwt);
+    }
+    return verifiedJwt;
+  }
+}
@@ -45,6 +45,12 @@ public class PasswordResetService {
     @Autowired
     EmailService emailService;
 
+    @Autowired
+    UserDetailsCache userDetailsCache;
+
+    @Autowired
+    TokenRevocationService tokenRevocationService;
+
     @Value("classpath:PasswordReset.txt")
     private Resource emailHtml;
 
@@ -99,6 +105,9 @@ public class PasswordResetService {
         } else {
             user.setPassword(passwordEncoder.encode(passwordResetRequest.getPassword()));
             userRepository.save(user);
+            userDetailsCache.evict(user.getUsername());
+            //a reset usually means the old password leaked, so sessions started with it end here
+            tokenRevocationService.revoke(user.getUsername());
             return true;
         }
     }
@@ -0,0 +1,81 @@
+package com.lazy.todo.security.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Instant;
+import java.util.Base64;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.lazy.todo.exceptions.InvalidRefreshTokenException;
+import com.lazy.todo.models.RefreshToken;
+import com.lazy.todo.models.User;
+import com.lazy.todo.repository.RefreshTokenRepository;
+import com.lazy.todo.repository.UserRepository;
+
+/**
+ * Opaque refresh tokens, so clients can get a new JWT without sending the password through bcrypt again.
+ * Each refresh token works once: using it deletes it and hands back a new one.
+ */
+@Service
+public class RefreshTokenService {
+
+  private final SecureRandom secureRandom = new SecureRandom();
+
+  @Autowired
+  RefreshTokenRepository refreshTokenRepository;
+
+  @Autowired
+  UserRepository userRepository;
+
+  @Value("${lazy.app.refreshExpirationMs:2592000000}")
+  private long refreshExpirationMs;
+
+  public String createRefreshToken(Long userId) {
+    byte[] bytes = new byte[32];
+    secureRandom.nextBytes(bytes);
+    String token = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    User user = userRepository.getReferenceById(userId);
+    refreshTokenRepository.save(new RefreshToken(hash(token), user, Instant.now().plusMillis(refreshExpirationMs)));
+    return token;
+  }
+
+  //consume the refresh token and return the user it belonged to, the caller issues the new token pair
+  @Transactional
+  public UserDetailsImpl useRefreshToken(String token) throws InvalidRefreshTokenException {
+    RefreshToken refreshToken = refreshTokenRepository.findByTokenHash(hash(token))
+        .orElseThrow(() -> new InvalidRefreshTokenException("Refresh token is not valid"));
+    //whoever deletes the row owns the rotation, a second request racing with the same token gets nothing
+    if (refreshTokenRepository.deleteUsed(refreshToken.getId()) == 0) {
+      throw new InvalidRefreshTokenException("Refresh token is not valid");
+    }
+    if (refreshToken.getExpiryDate().isBefore(Instant.now())) {
+      throw new InvalidRefreshTokenException("Refresh token has expired, please sign in again");
+    }
+    return UserDetailsImpl.build(refreshToken.getUser());
+  }
+
+  public void deleteAllForUser(String username) {
+    refreshTokenRepository.deleteAllByUsername(username);
+  }
+
+  @Scheduled(fixedDelayString = "${lazy.app.revocationPruneMs:600000}")
+  public void deleteExpired() {
+    refreshTokenRepository.deleteExpiredBefore(Instant.now());
+  }
+
+  private static String hash(String token) {
+    try {
+      MessageDigest messageDigest = MessageDigest.getInstance("SHA-256");
+      return Base64.getEncoder().encodeToString(messageDigest.digest(token.getBytes(StandardCharsets.UTF_8)));
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException("SHA-256 is not available", e);
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package com.lazy.todo.security.services;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+
+/**
+ * Runs password verification for signin on a small, bounded pool instead of the servlet threads. BCrypt is
+ * deliberately slow, so a login burst would otherwise take every request thread and stall the cheap reads. When
+ * both the pool and its queue are full, submit fails fast with a RejectedExecutionException.
+ */
+@Component
+public class SigninExecutor {
+
+  private final ThreadPoolExecutor executor;
+
+  @Autowired(required = false)
+  private MeterRegistry meterRegistry;
+
+  private Timer hashTimer;
+
+  public SigninExecutor(@Value("${lazy.app.signinThreads:0}") int threads,
+      @Value("${lazy.app.signinQueueCapacity:100}") int queueCapacity) {
+    //by default one thread per core, hashing is purely CPU bound so more threads only add contention
+    int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    AtomicInteger threadNumber = new AtomicInteger();
+    ThreadFactory threadFactory = runnable -> {
+      Thread thread = new Thread(runnable, "signin-" + threadNumber.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+    this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity), threadFactory, new ThreadPoolExecutor.AbortPolicy());
+  }
+
+  @PostConstruct
+  public void bindMetrics() {
+    if (meterRegistry == null) {
+      return;
+    }
+    Gauge.builder("signin.queue.depth", executor, e -> e.getQueue().size())
+        .description("Signin requests waiting for a hashing thread")
+        .register(meterRegistry);
+    Gauge.builder("signin.active", executor, ThreadPoolExecutor::getActiveCount)
+        .description("Signin requests currently being verified")
+        .register(meterRegistry);
+    hashTimer = Timer.builder("signin.hash")
+        .description("Time spent verifying signin credentials")
+        .register(meterRegistry);
+  }
+
+  public <T> CompletableFuture<T> submit(Supplier<T> task) throws RejectedExecutionException {
+    return CompletableFuture.supplyAsync(() -> {
+      long start = System.nanoTime();
+      try {
+        return task.get();
+      } finally {
+        if (hashTimer != null) {
+          hashTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+      }
+    }, executor);
+  }
+
+  public int getQueueDepth() {
+    return executor.getQueue().size();
+  }
+
+  @PreDestroy
+  public void shutdown() {
+    executor.shutdown();
+  }
+}
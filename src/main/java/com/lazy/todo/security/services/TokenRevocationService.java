@@ -0,0 +1,87 @@
+package com.lazy.todo.security.services;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.lazy.todo.models.RevokedToken;
+import com.lazy.todo.repository.RevokedTokenRepository;
+import com.lazy.todo.security.jwt.TokenRevocationList;
+
+/**
+ * Persists revocations and keeps the in-memory TokenRevocationList in step with the table. A revocation is
+ * applied locally straight away, and other instances pick it up on their next refresh. Each refresh reads back
+ * over a window that overlaps the previous one, so a row that commits late, or comes from an instance whose clock
+ * is a little behind, is still seen; applying a row twice is harmless.
+ */
+@Service
+public class TokenRevocationService {
+
+  @Autowired
+  RevokedTokenRepository revokedTokenRepository;
+
+  @Autowired
+  TokenRevocationList revocationList;
+
+  @Autowired
+  RefreshTokenService refreshTokenService;
+
+  @Value("${lazy.app.jwtExpirationMs}")
+  private long jwtExpirationMs;
+
+  @Value("${lazy.app.revocationRefreshOverlapMs:60000}")
+  private long refreshOverlapMs;
+
+  //null until the first refresh, which loads every row
+  private volatile Instant lastRefresh;
+
+  @PostConstruct
+  public void load() {
+    refresh();
+  }
+
+  //invalidate every token issued to this user so far, refresh tokens included
+  public void revoke(String username) {
+    refreshTokenService.deleteAllForUser(username);
+    //the column holds millis, so keep the same value here as other instances will read back
+    RevokedToken revokedToken = revokedTokenRepository.save(
+        new RevokedToken(username, Instant.now().truncatedTo(ChronoUnit.MILLIS)));
+    long revokedAtMillis = revokedToken.getRevokedAt().toEpochMilli();
+    //inside a transaction the local list only changes once the row is committed, a rollback revokes nothing
+    if (TransactionSynchronizationManager.isSynchronizationActive()) {
+      TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+        @Override
+        public void afterCommit() {
+          revocationList.revoke(username, revokedAtMillis);
+        }
+      });
+    } else {
+      revocationList.revoke(username, revokedAtMillis);
+    }
+  }
+
+  @Scheduled(fixedDelayString = "${lazy.app.revocationRefreshMs:5000}")
+  public synchronized void refresh() {
+    Instant started = Instant.now();
+    Instant since = lastRefresh != null ? lastRefresh.minusMillis(refreshOverlapMs) : Instant.EPOCH;
+    for (RevokedToken revokedToken : revokedTokenRepository.findByRevokedAtGreaterThanEqual(since)) {
+      revocationList.revoke(revokedToken.getUsername(), revokedToken.getRevokedAt().toEpochMilli());
+    }
+    lastRefresh = started;
+  }
+
+  @Scheduled(fixedDelayString = "${lazy.app.revocationPruneMs:600000}")
+  public void prune() {
+    Instant cutoff = Instant.now().minusMillis(jwtExpirationMs);
+    revokedTokenRepository.deleteRevokedBefore(cutoff);
+    revocationList.prune(cutoff.toEpochMilli());
+  }
+}
@@ -0,0 +1,61 @@
+package com.lazy.todo.security.services;
+
+import java.util.concurrent.TimeUnit;
+
+import javax.annotation.PostConstruct;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+
+/**
+ * Per-user cache of the principal built by {@link UserDetailsServiceImpl}, so authenticated requests don't query
+ * the users and roles tables every time. Anything that changes a user's details, roles or existence must call
+ * {@link #evict(String)}; the TTL only bounds staleness on other nodes.
+ */
+@Component
+public class UserDetailsCache {
+
+  @Autowired
+  UserDetailsServiceImpl userDetailsService;
+
+  @Autowired(required = false)
+  private MeterRegistry meterRegistry;
+
+  private final Cache<String, UserDetails> cache;
+
+  public UserDetailsCache(@Value("${lazy.app.userCacheMaxSize:10000}") long maxSize,
+      @Value("${lazy.app.userCacheTtlMs:600000}") long ttlMs) {
+    this.cache = Caffeine.newBuilder()
+        .maximumSize(maxSize)
+        .expireAfterWrite(ttlMs, TimeUnit.MILLISECONDS)
+        .recordStats()
+        .build();
+  }
+
+  @PostConstruct
+  public void bindMetrics() {
+    if (meterRegistry != null) {
+      CaffeineCacheMetrics.monitor(meterRegistry, cache, "userDetails");
+    }
+  }
+
+  public UserDetails get(String username) throws UsernameNotFoundException {
+    //unknown users throw out of the loader, so they are never cached
+    return cache.get(username, userDetailsService::loadUserByUsername);
+  }
+
+  public void evict(String username) {
+    if (username != null) {
+      cache.invalidate(username);
+    }
+  }
+}
@@ -2,6 +2,7 @@ package com.lazy.todo.security.services;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
@@ -11,7 +12,7 @@ import com.lazy.todo.models.User;
 import com.lazy.todo.repository.UserRepository;
 
 @Service
-public class UserDetailsServiceImpl implements UserDetailsService {
+public class UserDetailsServiceImpl implements UserDetailsService, UserDetailsPasswordService {
   @Autowired
   UserRepository userRepository;
 
@@ -24,4 +25,14 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     return UserDetailsImpl.build(user);
   }
 
+  //called by DaoAuthenticationProvider after a successful signin when the stored hash used a different bcrypt cost
+  @Override
+  @Transactional
+  public UserDetails updatePassword(UserDetails userDetails, String newPassword) {
+    User user = userRepository.findByUsername(userDetails.getUsername())
+        .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + userDetails.getUsername()));
+    user.setPassword(newPassword);
+    return UserDetailsImpl.build(userRepository.save(user));
+  }
+
 }
@@ -0,0 +1,27 @@
+package com.lazy.todo.security.services;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.stereotype.Component;
+
+import com.lazy.todo.repository.UserRepository;
+import com.lazy.todo.security.jwt.VerifiedJwt;
+
+/**
+ * Turns a verified token into the caller's user id for the services. The id is taken straight from the uid claim
+ * where there is one, only tokens issued before that claim was added need a lookup by username.
+ */
+@Component
+public class UserIdResolver {
+
+  @Autowired
+  UserRepository userRepository;
+
+  public Long getUserId(VerifiedJwt jwt) throws UsernameNotFoundException {
+    if (jwt.getUserId() != null) {
+      return jwt.getUserId();
+    }
+    return userRepository.findIdByUsername(jwt.getUsername())
+        .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username " + jwt.getUsername()));
+  }
+}
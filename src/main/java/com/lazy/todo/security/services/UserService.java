@@ -1,18 +1,26 @@
 package com.lazy.todo.security.services;
 
-import com.lazy.todo.controllers.AuthController;
+import com.lazy.todo.models.ERole;
 import com.lazy.todo.models.PasswordResetToken;
+import com.lazy.todo.models.Role;
 import com.lazy.todo.models.User;
 import com.lazy.todo.payload.request.PasswordResetRequest;
 import com.lazy.todo.repository.PasswordResetTokenRepository;
+import com.lazy.todo.repository.RoleRepository;
 import com.lazy.todo.repository.UserRepository;
 import com.lazy.todo.security.jwt.JwtUtils;
+import com.lazy.todo.security.jwt.VerifiedJwt;
+import com.lazy.todo.services.CompletionStatsService;
+import com.lazy.todo.services.ScoreService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.Calendar;
+import java.util.HashSet;
+import java.util.Set;
 
 @Service
 public class UserService {
@@ -21,14 +29,26 @@ public class UserService {
     UserRepository userRepository;
 
     @Autowired
-    PasswordResetTokenRepository passwordResetTokenRepository;
+    RoleRepository roleRepository;
 
     @Autowired
-    AuthController authController;
+    PasswordResetTokenRepository passwordResetTokenRepository;
 
     @Autowired
     JwtUtils jwtUtils;
 
+    @Autowired
+    UserDetailsCache userDetailsCache;
+
+    @Autowired
+    TokenRevocationService tokenRevocationService;
+
+    @Autowired
+    ScoreService scoreService;
+
+    @Autowired
+    CompletionStatsService completionStatsService;
+
     public PasswordResetToken createPasswordResetTokenForUser(PasswordResetRequest passwordResetRequest) {
 
         User user = userRepository.findByEmail(passwordResetRequest.getEmail())
@@ -37,20 +57,41 @@ public class UserService {
         return passwordResetTokenRepository.save(new PasswordResetToken(token, user, LocalDateTime.now().plusMinutes(30)));
     }
 
-    public String deleteUser(String jwt) throws  UsernameNotFoundException {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
+    //the role is read and linked in the same transaction, so it is still managed when the user is saved
+    @Transactional
+    public User registerUser(User user) {
+        Set<Role> roles = new HashSet<>();
+        Role userRole = roleRepository.findByName(ERole.ROLE_USER)
+                .orElseThrow(() -> new RuntimeException("Error: Role is not found."));
+        roles.add(userRole);
+        user.setRoles(roles);
+        userRepository.save(user);
+        //roles are part of the cached principal, so any role assignment has to drop it
+        userDetailsCache.evict(user.getUsername());
+        return user;
+    }
+
+    @Transactional
+    public String deleteUser(VerifiedJwt jwt) throws  UsernameNotFoundException {
+        String username = jwt.getUsername();
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username " + username));
+        //tokens already handed out must stop working with the account, and refresh tokens reference the user row
+        tokenRevocationService.revoke(username);
+        scoreService.userDeleted(user.getId());
+        completionStatsService.userDeleted(user.getId());
         userRepository.delete(user);
+        userDetailsCache.evict(username);
         return username + " successfully deleted";
     }
 
-    public String updateEmail(String jwt, String email) throws  UsernameNotFoundException{
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
+    public String updateEmail(VerifiedJwt jwt, String email) throws  UsernameNotFoundException{
+        String username = jwt.getUsername();
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username " + username));
         user.setEmail(email);
         userRepository.save(user);
+        userDetailsCache.evict(username);
         return "email successfully updated to " + email;
     }
 
@@ -1,62 +1,65 @@
 package com.lazy.todo.services;
 
 import com.lazy.todo.models.User;
+import com.lazy.todo.payload.response.UserResponse;
 import com.lazy.todo.repository.UserRepository;
-import com.lazy.todo.security.jwt.JwtUtils;
+import com.lazy.todo.security.jwt.VerifiedJwt;
+import com.lazy.todo.security.services.UserIdResolver;
+import com.lazy.todo.security.services.UserDetailsCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.persistence.EntityManager;
-import javax.persistence.PersistenceContext;
-import javax.persistence.Query;
+import java.util.Collections;
 import java.util.List;
 
 @Service
+@Transactional
 public class AccountService {
 
 
 
-    @PersistenceContext
-    EntityManager entityManager;
-
     @Autowired
     UserRepository userRepository;
 
     @Autowired
-    JwtUtils jwtUtils;
+    UserIdResolver userIdResolver;
 
+    @Autowired
+    ScoreService scoreService;
 
-    public String deleteUser(String jwt) throws  UsernameNotFoundException {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User not found with username " + username));
-        userRepository.delete(user);
-        return username + " successfully deleted";
-    }
+    @Autowired
+    UserDetailsCache userDetailsCache;
 
-    public String getPersonality(String jwt) throws  UsernameNotFoundException {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
+
+    @Transactional(readOnly = true)
+    public String getPersonality(VerifiedJwt jwt) throws  UsernameNotFoundException {
+        String username = jwt.getUsername();
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username " + username));
         return user.getPersonality();
     }
 
-    public User changePersonality(String jwt, String personality) throws  UsernameNotFoundException {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
+    public UserResponse changePersonality(VerifiedJwt jwt, String personality) throws  UsernameNotFoundException {
+        String username = jwt.getUsername();
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username " + username));
         user.setPersonality(personality);
-        return userRepository.save(user);
+        User savedUser = userRepository.save(user);
+        userDetailsCache.evict(username);
+        //not the entity itself, its lazy collections can't be read once the transaction has ended
+        return new UserResponse(savedUser.getUsername(), savedUser.getPersonality());
          }
 
-    public List<Integer> getScore(String jwt) {
-        String username =jwtUtils.getUserNameFromJwtToken(jwt);
-        User user =userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username " + username));
-        Query q = entityManager.createNamedQuery("User.scoreCount");
-        q.setParameter(1, user.getId());
-        return (List<Integer>) q.getResultList();
+    @Transactional(readOnly = true)
+    public List<Integer> getScore(VerifiedJwt jwt) {
+        return getScore(userIdResolver.getUserId(jwt));
     }
 
+    @Transactional(readOnly = true)
+    //the number of tasks completed in the last year, as a one element list
+    public List<Integer> getScore(Long userId) {
+        return Collections.singletonList((int) scoreService.getScore(userId));
+    }
 }
@@ -0,0 +1,156 @@
+package com.lazy.todo.services;
+
+import com.lazy.todo.exceptions.InvalidStatsRangeException;
+import com.lazy.todo.models.CompletionBucket;
+import com.lazy.todo.models.Task;
+import com.lazy.todo.payload.response.CompletionCount;
+import com.lazy.todo.payload.response.CompletionStatsResponse;
+import com.lazy.todo.payload.response.ProjectCompletions;
+import com.lazy.todo.repository.CompletionBucketRepository;
+import com.lazy.todo.security.jwt.VerifiedJwt;
+import com.lazy.todo.security.services.UserIdResolver;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Keeps the completion_buckets table, one row per user, day and project, in step with the tasks, and answers
+ * stats requests by adding those rows up. A range query reads at most one row per day and project, however many
+ * tasks the user has completed.
+ */
+@Service
+@Transactional
+public class CompletionStatsService {
+
+    public static final String DAY = "day";
+
+    public static final String WEEK = "week";
+
+    public static final String MONTH = "month";
+
+    @Autowired
+    CompletionBucketRepository completionBucketRepository;
+
+    @Autowired
+    UserIdResolver userIdResolver;
+
+    @Value("${lazy.app.statsMaxDays:366}")
+    int maxDays;
+
+    //the day the task counts as completed on, or null if it isn't completed
+    public static LocalDate completedOn(Task task) {
+        return task.getChecked() != null ? task.getCompletedOn() : null;
+    }
+
+    //moves the task's completion, for every owner, from the bucket of the old day to the bucket of the new one.
+    //only a completion can create a bucket, taking one away never leaves a negative row behind
+    public void taskChanged(Long taskId, LocalDate completedBefore, LocalDate completedAfter) {
+        if (Objects.equals(completedBefore, completedAfter)) {
+            return;
+        }
+        if (completedBefore != null) {
+            completionBucketRepository.addToTaskOwnerBuckets(taskId, completedBefore, -1);
+        }
+        if (completedAfter != null) {
+            completionBucketRepository.addToTaskOwnerBuckets(taskId, completedAfter, 1);
+            completionBucketRepository.insertMissingTaskOwnerBuckets(taskId, completedAfter);
+        }
+    }
+
+    public void projectDeleted(Long projectId) {
+        completionBucketRepository.deleteByProjectId(projectId);
+    }
+
+    public void userDeleted(Long userId) {
+        completionBucketRepository.deleteByUserId(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public CompletionStatsResponse getStats(VerifiedJwt jwt, LocalDate from, LocalDate to, Long projectId, String period)
+            throws InvalidStatsRangeException {
+        LocalDate today = LocalDate.now();
+        LocalDate end = to != null ? to : today;
+        LocalDate start = from != null ? from : end.minusDays(29);
+        String groupBy = period != null ? period : DAY;
+        if (start.isAfter(end)) {
+            throw new InvalidStatsRangeException("from must not be after to");
+        }
+        if (ChronoUnit.DAYS.between(start, end) >= maxDays) {
+            throw new InvalidStatsRangeException("stats can cover at most " + maxDays + " days");
+        }
+        if (!DAY.equals(groupBy) && !WEEK.equals(groupBy) && !MONTH.equals(groupBy)) {
+            throw new InvalidStatsRangeException("period must be one of day, week or month");
+        }
+        Long userId = userIdResolver.getUserId(jwt);
+        List<CompletionCount> daily = projectId == null
+                ? completionBucketRepository.findDailyByUserId(userId, start, end)
+                : completionBucketRepository.findDailyByUserIdAndProjectId(userId, start, end, projectId);
+        List<ProjectCompletions> projects = new ArrayList<>();
+        if (projectId == null) {
+            for (ProjectCompletions project : completionBucketRepository.findProjectTotalsByUserId(userId, start, end)) {
+                if (project.getProjectId() == CompletionBucket.NO_PROJECT) {
+                    project.setProjectId(null);
+                }
+                projects.add(project);
+            }
+        }
+        long total = daily.stream().mapToLong(CompletionCount::getCompleted).sum();
+        return new CompletionStatsResponse(start, end, groupBy, total, currentStreak(daily, end, today),
+                longestStreak(daily), group(daily, groupBy), projects);
+    }
+
+    //daily counts are in day order, so each period's days are next to each other
+    static List<CompletionCount> group(List<CompletionCount> daily, String period) {
+        if (DAY.equals(period)) {
+            return daily;
+        }
+        List<CompletionCount> grouped = new ArrayList<>();
+        CompletionCount current = null;
+        for (CompletionCount day : daily) {
+            LocalDate periodStart = WEEK.equals(period)
+                    ? day.getStart().with(DayOfWeek.MONDAY)
+                    : day.getStart().withDayOfMonth(1);
+            if (current == null || !current.getStart().equals(periodStart)) {
+                current = new CompletionCount(periodStart, 0);
+                grouped.add(current);
+            }
+            current.setCompleted(current.getCompleted() + day.getCompleted());
+        }
+        return grouped;
+    }
+
+    static int longestStreak(List<CompletionCount> daily) {
+        int longest = 0;
+        int streak = 0;
+        LocalDate previous = null;
+        for (CompletionCount day : daily) {
+            streak = previous != null && previous.plusDays(1).equals(day.getStart()) ? streak + 1 : 1;
+            longest = Math.max(longest, streak);
+            previous = day.getStart();
+        }
+        return longest;
+    }
+
+    //today still counts as part of a streak until it is over, so an empty today doesn't break it
+    static int currentStreak(List<CompletionCount> daily, LocalDate end, LocalDate today) {
+        LocalDate expected = end;
+        int i = daily.size() - 1;
+        if (end.equals(today) && (i < 0 || !daily.get(i).getStart().equals(today))) {
+            expected = end.minusDays(1);
+        }
+        int streak = 0;
+        for (; i >= 0 && daily.get(i).getStart().equals(expected); i--) {
+            streak++;
+            expected = expected.minusDays(1);
+        }
+        return streak;
+    }
+}
@@ -7,12 +7,14 @@ import com.lazy.todo.models.Task;
 import com.lazy.todo.models.User;
 import com.lazy.todo.repository.TaskRepository;
 import com.lazy.todo.repository.UserRepository;
-import com.lazy.todo.security.jwt.JwtUtils;
+import com.lazy.todo.security.jwt.VerifiedJwt;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @Service
+@Transactional(readOnly = true)
 public class MotivationService {
 
     @Autowired
@@ -21,16 +23,13 @@ public class MotivationService {
     @Autowired
     TaskRepository taskRepository;
 
-    @Autowired
-    JwtUtils jwtUtils;
-
-    public Motivation createMotivation(String jwt, Long id) throws NoSuchTaskException, AccessDeniedException {
-        String username =jwtUtils.getUserNameFromJwtToken(jwt);
+    public Motivation createMotivation(VerifiedJwt jwt, Long id) throws NoSuchTaskException, AccessDeniedException {
+        String username = jwt.getUsername();
         User user =userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username " + username));
         Task task = taskRepository.findById(id)
                 .orElseThrow(() -> new NoSuchTaskException("Task Not Found with task id " + id));
-        if (!user.getTasks().contains(task)){
+        if (!taskRepository.existsByUserIdAndTaskId(user.getId(), id)) {
             throw new AccessDeniedException("you do not have access to this task");
         }
         return new Motivation(task.getTitle(), user.getPersonality());
@@ -0,0 +1,52 @@
+package com.lazy.todo.services;
+
+import com.lazy.todo.exceptions.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * The (priority, id) of the last row on a page, sent to the client as an opaque string. The next page starts
+ * strictly after it, so rows inserted or deleted elsewhere in the list never shift what the client sees.
+ */
+public class PageCursor {
+
+    //sorts before every real row, used for the first page
+    public static final PageCursor FIRST = new PageCursor(Integer.MIN_VALUE, 0L);
+
+    private final int priority;
+
+    private final Long id;
+
+    public PageCursor(int priority, Long id) {
+        this.priority = priority;
+        this.id = id;
+    }
+
+    public static PageCursor decode(String cursor) throws InvalidCursorException {
+        if (cursor == null || cursor.isEmpty()) {
+            return FIRST;
+        }
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.indexOf(':');
+            return new PageCursor(Integer.parseInt(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new InvalidCursorException("Invalid page cursor " + cursor);
+        }
+    }
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString((priority + ":" + id).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public Long getId() {
+        return id;
+    }
+}
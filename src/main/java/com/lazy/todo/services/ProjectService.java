@@ -1,40 +1,51 @@
 package com.lazy.todo.services;
 
 import com.lazy.todo.exceptions.AccessDeniedException;
+import com.lazy.todo.exceptions.InvalidCursorException;
 import com.lazy.todo.exceptions.NoSuchProjectException;
 import com.lazy.todo.exceptions.NoSuchTaskException;
 import com.lazy.todo.models.Project;
 import com.lazy.todo.models.Task;
 import com.lazy.todo.models.User;
+import com.lazy.todo.payload.request.PriorityUpdate;
 import com.lazy.todo.payload.request.ProjectRequest;
 import com.lazy.todo.payload.request.TaskRequest;
+import com.lazy.todo.payload.response.PageResponse;
+import com.lazy.todo.payload.response.PriorityUpdateResponse;
+import com.lazy.todo.payload.response.ProjectSummary;
+import com.lazy.todo.payload.response.TaskSummary;
 import com.lazy.todo.repository.ProjectRepository;
 import com.lazy.todo.repository.TaskRepository;
 import com.lazy.todo.repository.UserRepository;
-import com.lazy.todo.security.jwt.JwtUtils;
-import com.lazy.todo.services.TaskService;
+import com.lazy.todo.security.jwt.VerifiedJwt;
+import com.lazy.todo.security.services.UserIdResolver;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.context.annotation.Bean;
-import org.springframework.http.ResponseEntity;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
-import java.util.stream.Collectors;
 
 @Service
+@Transactional
 public class ProjectService {
 
     @Autowired
-    JwtUtils jwtUtils;
+    UserRepository userRepository;
 
     @Autowired
-    UserRepository userRepository;
+    UserIdResolver userIdResolver;
 
     @Autowired
     ProjectRepository projectRepository;
@@ -45,9 +56,27 @@ public class ProjectService {
     @Autowired
     TaskRepository taskRepository;
 
-    public Project newProject(String jwt, ProjectRequest projectRequest) {
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ScoreService scoreService;
+
+    @Autowired
+    CompletionStatsService completionStatsService;
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Value("${lazy.app.pageSizeDefault:50}")
+    int defaultPageSize;
+
+    @Value("${lazy.app.pageSizeMax:200}")
+    int maxPageSize;
+
+    public Project newProject(VerifiedJwt jwt, ProjectRequest projectRequest) {
 
-        String username = jwtUtils.getUserNameFromJwtToken(jwt); //TODO this should probably throw an error if unable to parse JWT
+        String username = jwt.getUsername();
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
         Project project = new Project();
@@ -56,96 +85,116 @@ public class ProjectService {
         return projectRepository.save(project);
     }
 
-    public Project getProjectById(String jwt, Long id) throws NoSuchProjectException, AccessDeniedException {
-        String usersname = jwtUtils.getUserNameFromJwtToken(jwt);
-        User user = userRepository.findByUsername(usersname)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found With username: " + usersname));
+    @Transactional(readOnly = true)
+    public Project getProjectById(VerifiedJwt jwt, Long id) throws NoSuchProjectException, AccessDeniedException {
+        return getProjectById(userIdResolver.getUserId(jwt), id);
+    }
+
+    @Transactional(readOnly = true)
+    public Project getProjectById(Long userId, Long id) throws NoSuchProjectException, AccessDeniedException {
         Project project = projectRepository.findById(id)
                 .orElseThrow(() -> new NoSuchProjectException("Project Not Found With Id " + id));
-        if (project.getOwner().getId() != user.getId()) {
+        if (!Objects.equals(project.getOwner().getId(), userId)) {
             throw new AccessDeniedException("You don't have access to this project");
         } else {
             return project;
         }
     }
 
-    public List<Project> getAllProjectsByUser(String jwt) {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
-        user.getProjects().sort(Comparator.comparing(Project::getPriority));
-        return user.getProjects();
+    @Transactional(readOnly = true)
+    public PageResponse<ProjectSummary> getAllProjectsByUser(VerifiedJwt jwt, String cursor, Integer size) throws InvalidCursorException {
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = pageSize(size);
+        //one extra row tells us whether there is a next page without a count query
+        List<ProjectSummary> projects = projectRepository.findPageByOwnerId(userIdResolver.getUserId(jwt), after.getPriority(), after.getId(),
+                PageRequest.of(0, pageSize + 1));
+        if (projects.size() <= pageSize) {
+            return new PageResponse<>(projects, null);
+        }
+        List<ProjectSummary> page = new ArrayList<>(projects.subList(0, pageSize));
+        ProjectSummary last = page.get(pageSize - 1);
+        return new PageResponse<>(page, new PageCursor(last.getPriority(), last.getId()).encode());
     }
 
-    public List<Task> getProjectTasks(String jwt, Long projectId) throws NoSuchProjectException, AccessDeniedException {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
-        Project project = projectRepository.findById(projectId)
-                .orElseThrow(() -> new NoSuchProjectException("no project found with id " + projectId));
-        if (!user.getProjects().contains(project)) {
+    @Transactional(readOnly = true)
+    public List<TaskSummary> getProjectTasks(VerifiedJwt jwt, Long projectId) throws NoSuchProjectException, AccessDeniedException {
+        Long userId = userIdResolver.getUserId(jwt);
+        if (!projectRepository.existsById(projectId)) {
+            throw new NoSuchProjectException("no project found with id " + projectId);
+        }
+        if (!projectRepository.existsByIdAndOwner_Id(projectId, userId)) {
             throw new AccessDeniedException("You do not have access to this project");
         } else {
             //only send unfinished tasks and those finished today
-            return user.getTasks().stream()
-                    .filter(t -> (t.getCompletedOn().isAfter(LocalDate.now().minusDays(1))
-                            || t.getChecked() == null)).collect(Collectors.toList());
+            return taskRepository.findCurrentByProjectId(projectId, LocalDate.now().minusDays(1));
         }
     }
 
-    public Project updateProjectById(String jwt, Long id, ProjectRequest projectRequest) throws NoSuchProjectException, AccessDeniedException {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with userame: " + username));
+    public Project updateProjectById(VerifiedJwt jwt, Long id, ProjectRequest projectRequest) throws NoSuchProjectException, AccessDeniedException {
+        Long userId = userIdResolver.getUserId(jwt);
         Project updatedProject = projectRepository.findById(id)
                 .orElseThrow(() -> new NoSuchProjectException("Project Not Found with ID " + id));
-        if (!user.getProjects().contains(updatedProject)) {
+        if (!projectRepository.existsByIdAndOwner_Id(id, userId)) {
             throw new AccessDeniedException("You don't have access to requested resource");
         }
         BeanUtils.copyProperties(projectRequest, updatedProject);
         projectRepository.save(updatedProject);
-        userRepository.save(user);
         return updatedProject;
     }
 
-    public Project setProjectPriority(String jwt, Long id, int priority) throws NoSuchTaskException, AccessDeniedException {
-        String username =jwtUtils.getUserNameFromJwtToken(jwt);
-        User user =userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username " + username));
-        Project project = projectRepository.findById(id)
-                .orElseThrow(() -> new NoSuchTaskException("Task Not Found with task id " + id));
-        if (!user.getProjects().contains(project)) {
-            throw new AccessDeniedException("you do not have access to this task");
+    //reorder many projects at once: one ownership query and one batched update in a single transaction
+    public PriorityUpdateResponse setProjectPriorities(VerifiedJwt jwt, List<PriorityUpdate> priorityUpdates) throws NoSuchProjectException, AccessDeniedException {
+        Long userId = userIdResolver.getUserId(jwt);
+        Set<Long> ids = new LinkedHashSet<>();
+        for (PriorityUpdate priorityUpdate : priorityUpdates) {
+            ids.add(priorityUpdate.getId());
         }
-        project.setPriority(priority);
-        return projectRepository.save(project);
+        if (ids.isEmpty()) {
+            return new PriorityUpdateResponse(0, ids);
+        }
+        if (projectRepository.countByOwner_IdAndIdIn(userId, ids) != ids.size()) {
+            //only on failure, tell a missing project apart from someone else's
+            if (projectRepository.countByIdIn(ids) < ids.size()) {
+                throw new NoSuchProjectException("Project Not Found in " + ids);
+            }
+            throw new AccessDeniedException("You don't have access to this project");
+        }
+        jdbcTemplate.batchUpdate("update projects set priority = ? where id = ?", priorityUpdates, priorityUpdates.size(),
+                (ps, priorityUpdate) -> {
+                    ps.setInt(1, priorityUpdate.getPriority());
+                    ps.setLong(2, priorityUpdate.getId());
+                });
+        //the batch goes around hibernate, so the cached copies of these projects still have the old priority
+        Cache cache = entityManagerFactory.getCache();
+        for (Long id : ids) {
+            cache.evict(Project.class, id);
+        }
+        return new PriorityUpdateResponse(ids.size(), ids);
     }
 
-    public Project deleteProjectById(String jwt, Long id) throws NoSuchProjectException, AccessDeniedException, NoSuchTaskException {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with userame: " + username));
+    //a handful of bulk statements however many tasks the project holds
+    public Project deleteProjectById(VerifiedJwt jwt, Long id) throws NoSuchProjectException, AccessDeniedException, NoSuchTaskException {
+        Long userId = userIdResolver.getUserId(jwt);
         Project deletedProject = projectRepository.findById(id)
                 .orElseThrow(() -> new NoSuchProjectException("No Project found with id " + id));
-        if (!user.getProjects().contains(deletedProject)){
+        if (!projectRepository.existsByIdAndOwner_Id(id, userId)) {
             throw new AccessDeniedException("You don't have access to this project");
         }
-        user.getProjects().remove(deletedProject);
-        List<Long> idsForDeletion = new ArrayList<>();
-        for (Task task: deletedProject.getTasks()) {
-            taskRepository.delete(task);
-        }
+        scoreService.projectDeleted(id);
+        taskRepository.deleteUserLinksByProjectId(id);
+        taskRepository.deleteByProjectId(id);
+        completionStatsService.projectDeleted(id);
         projectRepository.delete(id);
         return deletedProject;
     }
 
-    public Task addTaskToProject(String jwt, Long projectId, TaskRequest taskRequest) throws NoSuchProjectException, AccessDeniedException {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
+    public Task addTaskToProject(VerifiedJwt jwt, Long projectId, TaskRequest taskRequest) throws NoSuchProjectException, AccessDeniedException {
+        String username = jwt.getUsername();
         User user = userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("User Not Found with userame: " + username));
         Project project = projectRepository.findById(projectId)
                 .orElseThrow(() -> new NoSuchProjectException("No Project found with id " + projectId));
-        if (!user.getProjects().contains(project)){
+        if (!projectRepository.existsByIdAndOwner_Id(projectId, user.getId())) {
             throw new AccessDeniedException("You don't have access to this project");
         }
         Task task = new Task();
@@ -155,4 +204,11 @@ public class ProjectService {
         taskRepository.save(task);
         return task;
     }
-}
\ No newline at end of file
+
+    private int pageSize(Integer size) {
+        if (size == null || size < 1) {
+            return defaultPageSize;
+        }
+        return Math.min(size, maxPageSize);
+    }
+}
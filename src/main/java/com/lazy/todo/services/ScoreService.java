@@ -0,0 +1,77 @@
+package com.lazy.todo.services;
+
+import com.lazy.todo.models.Task;
+import com.lazy.todo.models.UserScore;
+import com.lazy.todo.repository.TaskRepository;
+import com.lazy.todo.repository.UserScoreRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+
+/**
+ * Keeps each user's score, the tasks they completed in the last year, in the user_scores table. Completing or
+ * uncompleting a task moves the score of every owner by one, and deleting a project takes its completions off.
+ * reconcile recounts every row from the tasks so completions that have aged out of the year and any drift are
+ * corrected. It updates the rows in place rather than rebuilding the table, so every instance can run it without
+ * losing a completion recorded while it runs.
+ */
+@Service
+@Transactional
+public class ScoreService {
+
+    @Autowired
+    UserScoreRepository userScoreRepository;
+
+    @Autowired
+    TaskRepository taskRepository;
+
+    //the same test countCompletedByUserIdSince applies in the database
+    public static boolean countsTowardsScore(Task task) {
+        return task.getChecked() != null && task.getCompletedOn() != null
+                && task.getCompletedOn().isAfter(windowStart());
+    }
+
+    public void taskChanged(Long taskId, boolean countedBefore, boolean countedAfter) {
+        if (countedBefore != countedAfter) {
+            userScoreRepository.addToScoreOfTaskOwners(taskId, countedAfter ? 1 : -1);
+        }
+    }
+
+    //called before the project's tasks are deleted, while their owners can still be found
+    public void projectDeleted(Long projectId) {
+        userScoreRepository.subtractProjectCompletionsSince(projectId, windowStart());
+    }
+
+    public void userDeleted(Long userId) {
+        userScoreRepository.deleteByUserId(userId);
+    }
+
+    @Transactional(readOnly = true)
+    public long getScore(Long userId) {
+        return userScoreRepository.findById(userId)
+                .map(UserScore::getScore)
+                .orElseGet(() -> taskRepository.countCompletedByUserIdSince(userId, windowStart()));
+    }
+
+    //each statement commits on its own, so the update doesn't hold every row's lock until the insert is done
+    @Scheduled(fixedDelayString = "${lazy.app.scoreReconcileMs:3600000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void reconcile() {
+        LocalDate since = windowStart();
+        userScoreRepository.updateCompletedCountsSince(since);
+        try {
+            userScoreRepository.insertMissingCompletedCountsSince(since);
+        } catch (DataIntegrityViolationException e) {
+            //another instance added the same users first, their rows are already counted
+        }
+    }
+
+    private static LocalDate windowStart() {
+        return LocalDate.now().minusYears(1);
+    }
+}
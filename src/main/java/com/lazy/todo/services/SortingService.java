@@ -2,71 +2,59 @@ package com.lazy.todo.services;
 
 import com.lazy.todo.exceptions.AccessDeniedException;
 import com.lazy.todo.exceptions.NoSuchProjectException;
-import com.lazy.todo.models.Project;
-import com.lazy.todo.models.Task;
-import com.lazy.todo.models.User;
+import com.lazy.todo.payload.response.ProjectSummary;
+import com.lazy.todo.payload.response.TaskSummary;
 import com.lazy.todo.repository.ProjectRepository;
-import com.lazy.todo.repository.UserRepository;
-import com.lazy.todo.security.jwt.JwtUtils;
+import com.lazy.todo.repository.TaskRepository;
+import com.lazy.todo.security.jwt.VerifiedJwt;
+import com.lazy.todo.security.services.UserIdResolver;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.persistence.EntityManager;
-import javax.persistence.PersistenceContext;
-import javax.persistence.Query;
 import java.time.LocalDate;
-import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
 
+//every method here only reads, so hibernate skips dirty checking and flushing
 @Service
+@Transactional(readOnly = true)
 public class SortingService {
 
-    @PersistenceContext
-    EntityManager entityManager;
-
     @Autowired
-    JwtUtils jwtUtils;
+    UserIdResolver userIdResolver;
 
     @Autowired
-    UserRepository userRepository;
+    ProjectRepository projectRepository;
 
     @Autowired
-    ProjectRepository projectRepository;
+    TaskRepository taskRepository;
+
 
+    public List<TaskSummary> getCurrentTasks(VerifiedJwt jwt) {
+        return getCurrentTasks(userIdResolver.getUserId(jwt));
+    }
 
-    public List<Task> getCurrentTasks(String jwt) {
-        String username =jwtUtils.getUserNameFromJwtToken(jwt);
-        User user =userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username " + username));
-        Query q = entityManager.createNamedQuery("Task.sortedTasks");
-        q.setParameter(1, user.getId());
-        List<Task> returnedTasks = new ArrayList<>();
-        return q.getResultList();
+    //tasks outside any project that are unfinished or were finished today
+    public List<TaskSummary> getCurrentTasks(Long userId) {
+        return taskRepository.findCurrentByUserId(userId, LocalDate.now().minusDays(1));
     }
 
-    public List<Task> getCurrentProjectTasks(String jwt, Long projectId) throws NoSuchProjectException, AccessDeniedException {
-        String username =jwtUtils.getUserNameFromJwtToken(jwt);
-        User user =userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username " + username));
-        Project project = projectRepository.findById(projectId)
-                .orElseThrow(() -> new NoSuchProjectException("No project with Id " + projectId));
-        if (!user.getProjects().contains(project)){
+    public List<TaskSummary> getCurrentProjectTasks(VerifiedJwt jwt, Long projectId) throws NoSuchProjectException, AccessDeniedException {
+        Long userId = userIdResolver.getUserId(jwt);
+        if (!projectRepository.existsById(projectId)) {
+            throw new NoSuchProjectException("No project with Id " + projectId);
+        }
+        if (!projectRepository.existsByIdAndOwner_Id(projectId, userId)) {
             throw new AccessDeniedException("You don't have access to this project");
         }
-        Query q = entityManager.createNamedQuery("Project.sortedTasks");
-        q.setParameter(1, user.getId());
-        q.setParameter(2, projectId);
-        return q.getResultList();
+        return taskRepository.findCurrentByProjectId(projectId, LocalDate.now().minusDays(1));
+    }
+
+    public List<ProjectSummary> getSortedProjects(VerifiedJwt jwt) {
+        return getSortedProjects(userIdResolver.getUserId(jwt));
     }
 
-    public List<Project> getSortedProjects(String jwt) {
-        String username =jwtUtils.getUserNameFromJwtToken(jwt);
-        User user =userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username " + username));
-        Query q = entityManager.createNamedQuery("Project.sortedProjects");
-        q.setParameter(1, user.getId());
-        return q.getResultList();
+    public List<ProjectSummary> getSortedProjects(Long userId) {
+        return projectRepository.findSummariesByOwnerId(userId);
     }
-}
\ No newline at end of file
+}
@@ -1,29 +1,38 @@
 package com.lazy.todo.services;
 
 import com.lazy.todo.exceptions.AccessDeniedException;
+import com.lazy.todo.exceptions.InvalidCursorException;
 import com.lazy.todo.exceptions.NoSuchTaskException;
 import com.lazy.todo.models.Task;
 import com.lazy.todo.models.User;
+import com.lazy.todo.payload.request.PriorityUpdate;
 import com.lazy.todo.payload.request.TaskRequest;
+import com.lazy.todo.payload.response.PageResponse;
+import com.lazy.todo.payload.response.PriorityUpdateResponse;
+import com.lazy.todo.payload.response.TaskSummary;
 import com.lazy.todo.repository.TaskRepository;
 import com.lazy.todo.repository.UserRepository;
-import com.lazy.todo.security.jwt.JwtUtils;
+import com.lazy.todo.security.jwt.VerifiedJwt;
+import com.lazy.todo.security.services.UserIdResolver;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import javax.persistence.EntityManager;
-import javax.persistence.PersistenceContext;
-import javax.persistence.Query;
 import java.time.LocalDate;
-import java.util.Comparator;
+import java.util.ArrayList;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.stream.Collectors;
 
+//writes run in one transaction per call, reads are marked read-only so hibernate skips dirty checking and flushing
 @Service
+@Transactional
 public class TaskService {
 
 
@@ -32,13 +41,28 @@ public class TaskService {
     TaskRepository taskRepository;
 
     @Autowired
-    JwtUtils jwtUtils;
+    UserRepository userRepository;
 
     @Autowired
-    UserRepository userRepository;
+    UserIdResolver userIdResolver;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    ScoreService scoreService;
+
+    @Autowired
+    CompletionStatsService completionStatsService;
+
+    @Value("${lazy.app.pageSizeDefault:50}")
+    int defaultPageSize;
 
-    public Task saveNewTask(String jwt, TaskRequest task) {
-            String username = jwtUtils.getUserNameFromJwtToken(jwt);
+    @Value("${lazy.app.pageSizeMax:200}")
+    int maxPageSize;
+
+    public Task saveNewTask(VerifiedJwt jwt, TaskRequest task) {
+            String username = jwt.getUsername();
             User user = userRepository.findByUsername(username)
                     .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
             Task newTask = new Task();
@@ -47,87 +71,83 @@ public class TaskService {
             return taskRepository.save(newTask);
         }
 
-    public Task getTaskById(String jwt, Long id) throws NoSuchTaskException, AccessDeniedException {
+    @Transactional(readOnly = true)
+    public Task getTaskById(VerifiedJwt jwt, Long id) throws NoSuchTaskException, AccessDeniedException {
 
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
+        Long userId = userIdResolver.getUserId(jwt);
         Task task = taskRepository.findById(id)
                 .orElseThrow(() -> new NoSuchTaskException("Task Not Found with task id " + id));
-        if (!user.getTasks().contains(task)){
+        if (!taskRepository.existsByUserIdAndTaskId(userId, id)) {
             throw new AccessDeniedException();
         }
         return task;
         }
 
-    public List<Task> getAllTasks(String jwt) {
-        String username =jwtUtils.getUserNameFromJwtToken(jwt);
-        User user =userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username " + username));
-        return user.getTasks();
+    @Transactional(readOnly = true)
+    public PageResponse<TaskSummary> getAllTasks(VerifiedJwt jwt, String cursor, Integer size) throws InvalidCursorException {
+        PageCursor after = PageCursor.decode(cursor);
+        int pageSize = pageSize(size);
+        //one extra row tells us whether there is a next page without a count query
+        List<TaskSummary> tasks = taskRepository.findPageByUserId(userIdResolver.getUserId(jwt), after.getPriority(), after.getId(),
+                PageRequest.of(0, pageSize + 1));
+        if (tasks.size() <= pageSize) {
+            return new PageResponse<>(tasks, null);
+        }
+        List<TaskSummary> page = new ArrayList<>(tasks.subList(0, pageSize));
+        TaskSummary last = page.get(pageSize - 1);
+        return new PageResponse<>(page, new PageCursor(last.getPriority(), last.getId()).encode());
     }
 
-    public Task completeTask(String jwt, Long id) throws NoSuchTaskException, AccessDeniedException {
-        String username =jwtUtils.getUserNameFromJwtToken(jwt);
-        User user =userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username " + username));
+    public Task completeTask(VerifiedJwt jwt, Long id) throws NoSuchTaskException, AccessDeniedException {
+        Long userId = userIdResolver.getUserId(jwt);
         Task task = taskRepository.findById(id)
                 .orElseThrow(() -> new NoSuchTaskException("Task Not Found with task id " + id));
-        if (!user.getTasks().contains(task)) {
+        if (!taskRepository.existsByUserIdAndTaskId(userId, id)) {
             throw new AccessDeniedException("you do not have access to this task");
         }
+        boolean counted = ScoreService.countsTowardsScore(task);
+        LocalDate completedBefore = CompletionStatsService.completedOn(task);
         task.setCompletedOn(LocalDate.now());
         task.setChecked(true);
+        scoreService.taskChanged(id, counted, true);
+        completionStatsService.taskChanged(id, completedBefore, task.getCompletedOn());
         return taskRepository.save(task);
     }
 
-    public Task unCompleteTask(String jwt, Long id) throws NoSuchTaskException, AccessDeniedException {
-        String username =jwtUtils.getUserNameFromJwtToken(jwt);
-        User user =userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username " + username));
+    public Task unCompleteTask(VerifiedJwt jwt, Long id) throws NoSuchTaskException, AccessDeniedException {
+        Long userId = userIdResolver.getUserId(jwt);
         Task task = taskRepository.findById(id)
                 .orElseThrow(() -> new NoSuchTaskException("Task Not Found with task id " + id));
-        if (!user.getTasks().contains(task)) {
+        if (!taskRepository.existsByUserIdAndTaskId(userId, id)) {
             throw new AccessDeniedException("you do not have access to this task");
         }
+        boolean counted = ScoreService.countsTowardsScore(task);
+        LocalDate completedBefore = CompletionStatsService.completedOn(task);
         task.setChecked(null);
+        scoreService.taskChanged(id, counted, false);
+        completionStatsService.taskChanged(id, completedBefore, null);
         return taskRepository.save(task);
     }
 
-    public Task setTaskPriority(String jwt, Long id, int priority) throws NoSuchTaskException, AccessDeniedException {
-        String username =jwtUtils.getUserNameFromJwtToken(jwt);
-        User user =userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username " + username));
-        Task task = taskRepository.findById(id)
-                .orElseThrow(() -> new NoSuchTaskException("Task Not Found with task id " + id));
-        if (!user.getTasks().contains(task)) {
-            throw new AccessDeniedException("you do not have access to this task");
-        }
-        task.setPriority(priority);
-        return taskRepository.save(task);
+    //reorder many tasks at once: one ownership query and one batched update in a single transaction
+    public PriorityUpdateResponse setTaskPriorities(VerifiedJwt jwt, List<PriorityUpdate> priorityUpdates) throws NoSuchTaskException, AccessDeniedException {
+        Set<Long> ids = checkTasksOwned(userIdResolver.getUserId(jwt), priorityUpdates);
+        batchUpdate("update tasks set priority = ? where id = ?", priorityUpdates);
+        return new PriorityUpdateResponse(ids.size(), ids);
     }
 
-    public Task setTaskProjectPriority(String jwt, Long id, int priority) throws NoSuchTaskException, AccessDeniedException {
-        String username =jwtUtils.getUserNameFromJwtToken(jwt);
-        User user =userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username " + username));
-        Task task = taskRepository.findById(id)
-                .orElseThrow(() -> new NoSuchTaskException("Task Not Found with task id " + id));
-        if (!user.getTasks().contains(task)) {
-            throw new AccessDeniedException("you do not have access to this task");
-        }
-        task.setProjectPriority(priority);
-        return taskRepository.save(task);
+    public PriorityUpdateResponse setTaskProjectPriorities(VerifiedJwt jwt, List<PriorityUpdate> priorityUpdates) throws NoSuchTaskException, AccessDeniedException {
+        Set<Long> ids = checkTasksOwned(userIdResolver.getUserId(jwt), priorityUpdates);
+        batchUpdate("update tasks set project_priority = ? where id = ?", priorityUpdates);
+        return new PriorityUpdateResponse(ids.size(), ids);
     }
 
-
-    public Set<String> getTaskUsers(String jwt, Long id) throws AccessDeniedException, NoSuchTaskException {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
-        User currentUser = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with username: " + username));
+    @Transactional(readOnly = true)
+    public Set<String> getTaskUsers(VerifiedJwt jwt, Long id) throws AccessDeniedException, NoSuchTaskException {
+        Long userId = userIdResolver.getUserId(jwt);
         Task task = taskRepository.findById(id)
                 .orElseThrow(() -> new NoSuchTaskException("Task Not Found With ID " + id));
-        if (!currentUser.getTasks().contains(task)) {
+        if (!taskRepository.existsByUserIdAndTaskId(userId, id)) {
             throw new AccessDeniedException("you do not have access to this task");
         }
         Set<String> usernames = new HashSet<>();
@@ -138,35 +158,64 @@ public class TaskService {
     }
 
     //user hthis to update the task wholesale
-    public Task updateTaskById(String jwt, Long id, TaskRequest taskRequest) throws NoSuchTaskException, AccessDeniedException {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with userame: " + username));
+    public Task updateTaskById(VerifiedJwt jwt, Long id, TaskRequest taskRequest) throws NoSuchTaskException, AccessDeniedException {
+        Long userId = userIdResolver.getUserId(jwt);
         Task updatedTask = taskRepository.findById(id)
                 .orElseThrow(() -> new NoSuchTaskException("Task Not Found with task id " + id));
-        if (!user.getTasks().contains(updatedTask)) {
+        if (!taskRepository.existsByUserIdAndTaskId(userId, id)) {
             throw new AccessDeniedException("you do not have access to this task");
         }
         BeanUtils.copyProperties(taskRequest, updatedTask, "id", "project", "users");
         taskRepository.save(updatedTask);
-        userRepository.save(user);
         return updatedTask;
     }
 
-    public Task deleteTaskById(String jwt, Long id) throws NoSuchTaskException, AccessDeniedException {
-        String username = jwtUtils.getUserNameFromJwtToken(jwt);
-        User user = userRepository.findByUsername(username)
-                .orElseThrow(() -> new UsernameNotFoundException("User Not Found with userame: " + username));
+    //unlink every co-owner with one statement instead of loading and saving each of them
+    public Task deleteTaskById(VerifiedJwt jwt, Long id) throws NoSuchTaskException, AccessDeniedException {
+        Long userId = userIdResolver.getUserId(jwt);
         Task deletedTask = taskRepository.findById(id)
                 .orElseThrow(() -> new NoSuchTaskException("Task Not Found with task id " + id));
-        if (!user.getTasks().contains(deletedTask)) {
+        if (!taskRepository.existsByUserIdAndTaskId(userId, id)) {
             throw new AccessDeniedException("You don't have access to that task");
         }
-        for (User oldUser: deletedTask.getUsers()){
-            oldUser.getTasks().remove(deletedTask);
-            userRepository.save(oldUser);
-        }
+        //the owners are still linked, so this has to happen before they are unlinked
+        scoreService.taskChanged(id, ScoreService.countsTowardsScore(deletedTask), false);
+        completionStatsService.taskChanged(id, CompletionStatsService.completedOn(deletedTask), null);
+        taskRepository.deleteUserLinksByTaskId(id);
         taskRepository.delete(id);
         return deletedTask;
     }
+
+    private int pageSize(Integer size) {
+        if (size == null || size < 1) {
+            return defaultPageSize;
+        }
+        return Math.min(size, maxPageSize);
+    }
+
+    private Set<Long> checkTasksOwned(Long userId, List<PriorityUpdate> priorityUpdates) throws NoSuchTaskException, AccessDeniedException {
+        Set<Long> ids = new LinkedHashSet<>();
+        for (PriorityUpdate priorityUpdate : priorityUpdates) {
+            ids.add(priorityUpdate.getId());
+        }
+        if (ids.isEmpty() || taskRepository.countOwnedByUserId(userId, ids) == ids.size()) {
+            return ids;
+        }
+        //only on failure, tell a missing task apart from someone else's
+        if (taskRepository.countByIdIn(ids) < ids.size()) {
+            throw new NoSuchTaskException("Task Not Found in " + ids);
+        }
+        throw new AccessDeniedException("you do not have access to this task");
+    }
+
+    //updates are applied in request order, so a repeated id keeps its last value
+    private void batchUpdate(String sql, List<PriorityUpdate> priorityUpdates) {
+        if (priorityUpdates.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, priorityUpdates, priorityUpdates.size(), (ps, priorityUpdate) -> {
+            ps.setInt(1, priorityUpdate.getPriority());
+            ps.setLong(2, priorityUpdate.getId());
+        });
+    }
 }
@@ -0,0 +1,75 @@
+-- the schema as hibernate generated it before migrations took over, existing databases are baselined at this version
+
+create table roles (
+    id integer not null auto_increment,
+    name varchar(20),
+    primary key (id)
+);
+
+create table users (
+    id bigint not null auto_increment,
+    email varchar(50),
+    password varchar(120),
+    personality varchar(255),
+    username varchar(20),
+    primary key (id),
+    constraint uk_users_username unique (username),
+    constraint uk_users_email unique (email)
+);
+
+create table user_roles (
+    user_id bigint not null,
+    role_id integer not null,
+    primary key (user_id, role_id),
+    constraint fk_user_roles_user foreign key (user_id) references users (id),
+    constraint fk_user_roles_role foreign key (role_id) references roles (id)
+);
+
+create table projects (
+    id bigint not null auto_increment,
+    checked date,
+    description varchar(255),
+    priority integer not null,
+    project integer not null,
+    start_local_date date,
+    target_local_date date,
+    title varchar(100),
+    owner_id bigint,
+    primary key (id),
+    constraint fk_projects_owner foreign key (owner_id) references users (id)
+);
+
+create table tasks (
+    id bigint not null auto_increment,
+    checked bit,
+    completed_on date,
+    description varchar(255),
+    priority integer not null,
+    project_priority integer not null,
+    start_date date,
+    target_date date,
+    title varchar(100),
+    project_id bigint,
+    primary key (id),
+    constraint fk_tasks_project foreign key (project_id) references projects (id)
+);
+
+create table user_tasks (
+    user_id bigint not null,
+    task_id bigint not null,
+    constraint fk_user_tasks_user foreign key (user_id) references users (id),
+    constraint fk_user_tasks_task foreign key (task_id) references tasks (id)
+);
+
+create table password_reset_token (
+    id bigint not null auto_increment,
+    expiry_date datetime,
+    token varchar(255),
+    user_id bigint not null,
+    primary key (id),
+    constraint fk_password_reset_token_user foreign key (user_id) references users (id)
+);
+
+insert into roles(name) values('ROLE_USER');
+insert into roles(name) values('ROLE_MODERATOR');
+insert into roles(name) values('ROLE_ADMIN');
@@ -0,0 +1,13 @@
+-- composite indexes for the list, ownership and score queries, EXPLAIN checks for them live in QueryPlanIntegrationTest
+
+-- a user's tasks, and the ownership checks that go from user to task
+create index idx_user_tasks_user_task on user_tasks (user_id, task_id);
+
+-- deleting a task's links and listing its co-owners
+create index idx_user_tasks_task_user on user_tasks (task_id, user_id);
+
+-- a project's open tasks and those completed since yesterday, ordered by priority
+create index idx_tasks_project_current on tasks (project_id, checked, completed_on, priority);
+
+-- a user's projects, filtered by owner and ordered by (priority, id)
+create index idx_projects_owner_priority_id on projects (owner_id, priority, id);
@@ -0,0 +1,7 @@
+-- each user's completions in the last year, kept up to date by ScoreService so /api/task/score is a key lookup
+
+create table user_scores (
+    user_id bigint not null,
+    score bigint not null,
+    primary key (user_id)
+);
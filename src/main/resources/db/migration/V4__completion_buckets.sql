@@ -0,0 +1,18 @@
+-- completions per user, day and project, read by /api/account/stats instead of scanning tasks
+-- project_id is 0 for tasks outside a project so it can be part of the primary key
+
+create table completion_buckets (
+    user_id bigint not null,
+    completed_on date not null,
+    project_id bigint not null,
+    completed integer not null,
+    primary key (user_id, completed_on, project_id)
+);
+
+-- start from the completions already recorded on the tasks
+insert into completion_buckets (user_id, completed_on, project_id, completed)
+select ut.user_id, t.completed_on, coalesce(t.project_id, 0), count(*)
+from user_tasks ut
+join tasks t on t.id = ut.task_id
+where t.checked is not null and t.completed_on is not null
+group by ut.user_id, t.completed_on, coalesce(t.project_id, 0);
@@ -0,0 +1,21 @@
+-- revoked and refresh tokens, which databases baselined at version 1 may or may not have had hibernate create
+
+create table if not exists revoked_tokens (
+    id bigint not null auto_increment,
+    revoked_at datetime(3) not null,
+    username varchar(255) not null,
+    primary key (id)
+);
+
+create table if not exists refresh_tokens (
+    id bigint not null auto_increment,
+    expiry_date datetime not null,
+    token_hash varchar(44) not null,
+    user_id bigint not null,
+    primary key (id),
+    constraint uk_refresh_tokens_token_hash unique (token_hash),
+    constraint fk_refresh_tokens_user foreign key (user_id) references users (id)
+);
+
+-- TokenRevocationService polls the revocations made since its last refresh
+create index idx_revoked_tokens_revoked_at on revoked_tokens (revoked_at);
@@ -20,15 +20,18 @@ import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import javax.transaction.Transactional;
 import java.util.Date;
 
 import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -112,12 +115,16 @@ on a first install, this test will fail as testuser2 will be added to the databa
 	@Order(3)
 	public void loginTest() throws Exception {
 		LoginRequest loginRequest = new LoginRequest("test@test.com", "password");
-		mockMvc.perform(
+		//signin completes on the signin pool, so the response arrives on the async dispatch
+		MvcResult result = mockMvc.perform(
 						post("/api/auth/signin")
 								.contentType(MediaType.APPLICATION_JSON)
 								.header("Authorization", "bearer:placeholderJwt")
 								.content(gson.toJson(signupRequest2))
 								.accept(MediaType.APPLICATION_JSON))
+				.andExpect(request().asyncStarted())
+				.andReturn();
+		mockMvc.perform(asyncDispatch(result))
 				.andDo(print())
 				.andExpect(status().isOk())
 				.andReturn().getResponse().getContentAsString();
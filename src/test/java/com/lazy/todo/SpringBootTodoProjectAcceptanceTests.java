@@ -94,7 +94,7 @@ public class SpringBootTodoProjectAcceptanceTests {
                                 .accept(MediaType.APPLICATION_JSON))
                 .andDo(print())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.[0].title", is(PROJECT_REQUEST_1.getTitle())))
+                .andExpect(jsonPath("$.items[0].title", is(PROJECT_REQUEST_1.getTitle())))
                 .andReturn().getResponse().getContentAsString();
     }
 
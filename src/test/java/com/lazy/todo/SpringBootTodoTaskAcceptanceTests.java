@@ -112,11 +112,11 @@ public class SpringBootTodoTaskAcceptanceTests {
                                 .accept(MediaType.APPLICATION_JSON))
                 .andDo(print())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.[0].title", oneOf("testTitle1", "testTitle3",
+                .andExpect(jsonPath("$.items[0].title", oneOf("testTitle1", "testTitle3",
                         "testTitle4", "testTitle2")))
-                .andExpect(jsonPath("$.[1].title", oneOf("testTitle1", "testTitle3",
+                .andExpect(jsonPath("$.items[1].title", oneOf("testTitle1", "testTitle3",
                         "testTitle4", "testTitle2")))
-                .andExpect(jsonPath("$.[2].title", oneOf("testTitle1", "testTitle3",
+                .andExpect(jsonPath("$.items[2].title", oneOf("testTitle1", "testTitle3",
                         "testTitle4", "testTitle2")))
                 .andReturn().getResponse().getContentAsString();
     }
@@ -0,0 +1,107 @@
+package com.lazy.todo.benchmark;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import com.lazy.todo.security.jwt.JwtClaimsCache;
+import com.lazy.todo.security.jwt.JwtRejectionLogger;
+import com.lazy.todo.security.jwt.JwtUtils;
+import com.lazy.todo.security.jwt.TokenRevocationList;
+import com.lazy.todo.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Compares the per-call cost of JwtUtils against the old approach of building a parser and decoding the secret
+ * on every call. The claims cache is configured with a zero ttl so every validate call really parses the token.
+ * Run the main method after "mvn test-compile"; the gc profiler reports gc.alloc.rate.norm (bytes per call).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class JwtUtilsBenchmark {
+
+    private static final String SECRET = "bGF6eVRvZG9CZW5jaG1hcmtTZWNyZXRUaGF0SXNMb25nRW5vdWdoRm9ySFM1MTJTaWduaW5nS2V5c09ubHk=";
+
+    private JwtUtils jwtUtils;
+
+    private Authentication authentication;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        jwtUtils = new JwtUtils();
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 3600000);
+        ReflectionTestUtils.setField(jwtUtils, "claimsCache", new JwtClaimsCache(1, 0));
+        ReflectionTestUtils.setField(jwtUtils, "rejectionLogger", new JwtRejectionLogger(60000));
+        ReflectionTestUtils.setField(jwtUtils, "revocationList", new TokenRevocationList(65536));
+        jwtUtils.init();
+
+        UserDetailsImpl principal = new UserDetailsImpl(1L, "benchmarkUser", "benchmark@test.com", null,
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+        authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        token = jwtUtils.generateJwtToken(authentication);
+    }
+
+    @Benchmark
+    public boolean validateJwtToken() {
+        return jwtUtils.validateJwtToken(token);
+    }
+
+    @Benchmark
+    public String getUserNameFromJwtToken() {
+        return jwtUtils.getUserNameFromJwtToken(token);
+    }
+
+    @Benchmark
+    public String generateJwtToken() {
+        return jwtUtils.generateJwtToken(authentication);
+    }
+
+    //the previous implementation, kept here as the baseline
+    @Benchmark
+    public boolean validateJwtTokenBaseline() {
+        return Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody() != null;
+    }
+
+    @Benchmark
+    public String getUserNameFromJwtTokenBaseline() {
+        return Jwts.parser().setSigningKey(SECRET).parseClaimsJws(token).getBody().getSubject();
+    }
+
+    @Benchmark
+    public String generateJwtTokenBaseline() {
+        return Jwts.builder()
+                .setSubject("benchmarkUser")
+                .claim(JwtUtils.USER_ID_CLAIM, 1L)
+                .claim(JwtUtils.ROLES_CLAIM, Collections.singletonList("ROLE_USER"))
+                .setIssuedAt(new Date())
+                .setExpiration(new Date((new Date()).getTime() + 3600000))
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(JwtUtilsBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
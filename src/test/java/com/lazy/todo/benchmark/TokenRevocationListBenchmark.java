@@ -0,0 +1,59 @@
+package com.lazy.todo.benchmark;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import com.lazy.todo.security.jwt.TokenRevocationList;
+import com.lazy.todo.security.jwt.VerifiedJwt;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The revocation check runs on every authenticated request, so it has to stay well under a microsecond, both for
+ * the common case (user never revoked) and for a user whose tokens were revoked.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TokenRevocationListBenchmark {
+
+    private TokenRevocationList revocationList;
+
+    private VerifiedJwt activeUser;
+
+    private VerifiedJwt revokedUser;
+
+    @Setup
+    public void setup() {
+        revocationList = new TokenRevocationList(65536);
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < 1000; i++) {
+            revocationList.revoke("revokedUser" + i, now);
+        }
+        activeUser = new VerifiedJwt("placeholderJwt", "activeUser", new Date(now - 1000), new Date(now + 60000));
+        revokedUser = new VerifiedJwt("placeholderJwt", "revokedUser500", new Date(now - 1000), new Date(now + 60000));
+    }
+
+    @Benchmark
+    public boolean notRevoked() {
+        return revocationList.isRevoked(activeUser);
+    }
+
+    @Benchmark
+    public boolean revoked() {
+        return revocationList.isRevoked(revokedUser);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(TokenRevocationListBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -11,7 +11,10 @@ import com.lazy.todo.models.User;
 import com.lazy.todo.models.gson.LocalDateAdapter;
 import com.lazy.todo.payload.request.ProjectRequest;
 import com.lazy.todo.payload.request.TaskRequest;
+import com.lazy.todo.payload.response.PageResponse;
+import com.lazy.todo.payload.response.ProjectSummary;
 import com.lazy.todo.security.jwt.JwtUtils;
+import com.lazy.todo.security.jwt.VerifiedJwt;
 import com.lazy.todo.services.ProjectService;
 import com.lazy.todo.services.SortingService;
 import org.junit.jupiter.api.BeforeAll;
@@ -66,8 +69,14 @@ class ProjectControllerIntegrationTest {
 
     List<Project> PROJECT_LIST = new ArrayList<>(Arrays.asList(PROJECT_1, PROJECT_2, PROJECT_3));
 
+    List<ProjectSummary> PROJECT_SUMMARIES = new ArrayList<>(Arrays.asList(
+            new ProjectSummary(1L, "title1", "description1", null, null, null, 0),
+            new ProjectSummary(2L, "title2", "description2", null, null, null, 0)));
+
     User USER_1 = new User("testusername1", "test@test.co.uk", "testpassword1");
     User USER_2 = new User("testusername2", "test@test.com", "testpassword2");
+
+    VerifiedJwt PLACEHOLDER_JWT = new VerifiedJwt("placeholderJwt", "testusername1", new Date(), new Date());
     ProjectRequest PROJECT_REQUEST_1 = new ProjectRequest("testTitle", "testDescription");
 
 
@@ -75,9 +84,9 @@ class ProjectControllerIntegrationTest {
     void newProjectIntegrationTest() throws Exception {
         ProjectRequest projectRequest = new ProjectRequest("title4", "description4");
         Project project = new Project(projectRequest.getTitle(), projectRequest.getDescription());
-        when(projectService.newProject(eq("placeholderJwt"), any()))
+        when(projectService.newProject(eq(PLACEHOLDER_JWT), any()))
                 .thenReturn(project);
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
+        when(jwtUtils.parseJwtToken("placeholderJwt")).thenReturn(PLACEHOLDER_JWT);
         mockMvc.perform(
                         post("/api/project/new")
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -92,8 +101,8 @@ class ProjectControllerIntegrationTest {
 
     @Test
     void getProjectByIdIntegrationTest() throws Exception {
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        when(projectService.getProjectById("placeholderJwt", 1L)).thenReturn(PROJECT_1);
+        when(jwtUtils.parseJwtToken("placeholderJwt")).thenReturn(PLACEHOLDER_JWT);
+        when(projectService.getProjectById(PLACEHOLDER_JWT, 1L)).thenReturn(PROJECT_1);
         mockMvc.perform(
                         get("/api/project/1")
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -107,8 +116,8 @@ class ProjectControllerIntegrationTest {
 
     @Test
     void getAllProjectsIntegrationTest() throws Exception {
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        when(projectService.getAllProjectsByUser("placeholderJwt")).thenReturn(PROJECT_LIST);
+        when(jwtUtils.parseJwtToken("placeholderJwt")).thenReturn(PLACEHOLDER_JWT);
+        when(projectService.getAllProjectsByUser(PLACEHOLDER_JWT, null, null)).thenReturn(new PageResponse<>(PROJECT_SUMMARIES, null));
         mockMvc.perform(
                         get("/api/project/all")
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -116,16 +125,16 @@ class ProjectControllerIntegrationTest {
                                 .accept(MediaType.APPLICATION_JSON))
                 .andDo(print())
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$.[0].title", anyOf(is(PROJECT_1.getTitle()), is(PROJECT_2.getTitle()), is(PROJECT_3.getTitle()))))
-                .andExpect(jsonPath("$.[1].title", anyOf(is(PROJECT_1.getTitle()), is(PROJECT_2.getTitle()), is(PROJECT_3.getTitle()))))
+                .andExpect(jsonPath("$.items[0].title", anyOf(is(PROJECT_1.getTitle()), is(PROJECT_2.getTitle()), is(PROJECT_3.getTitle()))))
+                .andExpect(jsonPath("$.items[1].title", anyOf(is(PROJECT_1.getTitle()), is(PROJECT_2.getTitle()), is(PROJECT_3.getTitle()))))
                 .andReturn().getResponse().getContentAsString();
     }
 
 
     @Test
     void updateProjectByIdIntegrationTest() throws Exception {
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        when(projectService.updateProjectById(eq("placeholderJwt"), eq(1L), any())).thenReturn(PROJECT_1);
+        when(jwtUtils.parseJwtToken("placeholderJwt")).thenReturn(PLACEHOLDER_JWT);
+        when(projectService.updateProjectById(eq(PLACEHOLDER_JWT), eq(1L), any())).thenReturn(PROJECT_1);
         mockMvc.perform(
                         put("/api/project/1")
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -140,8 +149,8 @@ class ProjectControllerIntegrationTest {
 
     @Test
     void deleteProjectByIdIntegrationTest() throws Exception {
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        when(projectService.deleteProjectById("placeholderJwt", 1L)).thenReturn(PROJECT_1);
+        when(jwtUtils.parseJwtToken("placeholderJwt")).thenReturn(PLACEHOLDER_JWT);
+        when(projectService.deleteProjectById(PLACEHOLDER_JWT, 1L)).thenReturn(PROJECT_1);
         mockMvc.perform(
                         delete("/api/project/1")
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -1,6 +1,7 @@
 package com.lazy.todo.controllers;
 
 import com.lazy.todo.exceptions.AccessDeniedException;
+import com.lazy.todo.exceptions.InvalidCursorException;
 import com.lazy.todo.exceptions.NoSuchProjectException;
 import com.lazy.todo.exceptions.NoSuchTaskException;
 import com.lazy.todo.models.Project;
@@ -8,7 +9,10 @@ import com.lazy.todo.models.Task;
 import com.lazy.todo.models.User;
 import com.lazy.todo.payload.request.ProjectRequest;
 import com.lazy.todo.payload.request.TaskRequest;
+import com.lazy.todo.payload.response.PageResponse;
+import com.lazy.todo.payload.response.ProjectSummary;
 import com.lazy.todo.security.jwt.JwtUtils;
+import com.lazy.todo.security.jwt.VerifiedJwt;
 import com.lazy.todo.services.ProjectService;
 import com.lazy.todo.services.SortingService;
 import lombok.SneakyThrows;
@@ -49,6 +53,8 @@ class ProjectControllerUnitTest {
 
     User USER_1 = new User("testusername1", "test@test.co.uk", "testpassword1");
     User USER_2 = new User("testusername2", "test@test.com", "testpassword2");
+
+    VerifiedJwt PLACEHOLDER_JWT = new VerifiedJwt("placeholderJwt", "testusername1", new Date(), new Date());
     ProjectRequest PROJECT_REQUEST_1 = new ProjectRequest("testTitle", "testDescription");
     TaskRequest TASK_REQUEST_1 = new TaskRequest("testTitle", "testDescription");
 
@@ -56,148 +62,139 @@ class ProjectControllerUnitTest {
     @Test
     void newProjectTestTest() {
         Project project = new Project(PROJECT_REQUEST_1.getTitle(),PROJECT_REQUEST_1.getDescription());
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        when(projectService.newProject("placeholderJwt", PROJECT_REQUEST_1)).thenReturn(project);
-        assertEquals(ResponseEntity.ok(project), projectController.newProject("bearer placeholderJwt", PROJECT_REQUEST_1));
+        when(projectService.newProject(PLACEHOLDER_JWT, PROJECT_REQUEST_1)).thenReturn(project);
+        assertEquals(ResponseEntity.ok(project), projectController.newProject(PLACEHOLDER_JWT, PROJECT_REQUEST_1));
     }
 
     @Test
     void newProjectBadJwtTest() {
         Project project = new Project(PROJECT_REQUEST_1.getTitle(),PROJECT_REQUEST_1.getDescription());
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        when(projectService.newProject("placeholderJwt", PROJECT_REQUEST_1)).thenReturn(project);
-        assertEquals(HttpStatus.BAD_REQUEST, projectController.newProject("bearer BadJwt", PROJECT_REQUEST_1).getStatusCode());
+        when(projectService.newProject(PLACEHOLDER_JWT, PROJECT_REQUEST_1)).thenReturn(project);
+        assertEquals(HttpStatus.BAD_REQUEST, projectController.newProject(null, PROJECT_REQUEST_1).getStatusCode());
     }
 
     @SneakyThrows
     @Test
     void getProjectByIdTest() {
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        when(projectService.getProjectById("placeholderJwt", 1l)).thenReturn(PROJECT_1);
-        assertEquals(ResponseEntity.ok(PROJECT_1), projectController.getProjectById(1L,"bearer placeholderJwt"));
+        when(projectService.getProjectById(PLACEHOLDER_JWT, 1l)).thenReturn(PROJECT_1);
+        assertEquals(ResponseEntity.ok(PROJECT_1), projectController.getProjectById(1L,PLACEHOLDER_JWT));
     }
 
     @SneakyThrows
     @Test
     void getProjectByIdBadJwtTest() {
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        when(projectService.getProjectById("placeholderJwt", 1l)).thenReturn(PROJECT_1);
-        assertEquals(HttpStatus.BAD_REQUEST, projectController.getProjectById(1L,"bearer badJwt").getStatusCode());
+        when(projectService.getProjectById(PLACEHOLDER_JWT, 1l)).thenReturn(PROJECT_1);
+        assertEquals(HttpStatus.BAD_REQUEST, projectController.getProjectById(1L,null).getStatusCode());
     }
 
     @SneakyThrows
     @Test
     void getProjectByIdAccessDeniedTest() {
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        when(projectService.getProjectById("placeholderJwt", 2l)).thenThrow(new AccessDeniedException());
-        assertEquals(HttpStatus.UNAUTHORIZED, projectController.getProjectById(2L, "bearer placeholderJwt").getStatusCode());
+        when(projectService.getProjectById(PLACEHOLDER_JWT, 2l)).thenThrow(new AccessDeniedException());
+        assertEquals(HttpStatus.UNAUTHORIZED, projectController.getProjectById(2L, PLACEHOLDER_JWT).getStatusCode());
     }
 
     @SneakyThrows
     @Test
     void getProjectByIdNoContentTest(){
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        when(projectService.getProjectById("placeholderJwt", 2l)).thenThrow(new NoSuchProjectException());
-        assertEquals(HttpStatus.NO_CONTENT, projectController.getProjectById(2L, "bearer placeholderJwt").getStatusCode());
+        when(projectService.getProjectById(PLACEHOLDER_JWT, 2l)).thenThrow(new NoSuchProjectException());
+        assertEquals(HttpStatus.NO_CONTENT, projectController.getProjectById(2L, PLACEHOLDER_JWT).getStatusCode());
     }
 
+    @SneakyThrows
     @Test
     void getAllProjectsTest() {
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        when(projectService.getAllProjectsByUser("placeholderJwt")).thenReturn(PROJECT_LIST);
-        assertEquals(ResponseEntity.ok(PROJECT_LIST), projectController.getAllProjects("bearer placeholderJwt"));
+        PageResponse<ProjectSummary> page = new PageResponse<>(Arrays.asList(
+                new ProjectSummary(1L, "title1", "description1", null, null, null, 0)), null);
+        when(projectService.getAllProjectsByUser(PLACEHOLDER_JWT, null, null)).thenReturn(page);
+        assertEquals(ResponseEntity.ok(page), projectController.getAllProjects(PLACEHOLDER_JWT, null, null));
     }
 
     @Test
     void getAllProjectsBadJwtTest() {
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        assertEquals(HttpStatus.BAD_REQUEST, projectController.getAllProjects("bearer BadJwt").getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, projectController.getAllProjects(null, null, null).getStatusCode());
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllProjectsInvalidCursorTest() {
+        when(projectService.getAllProjectsByUser(PLACEHOLDER_JWT, "notACursor", null)).thenThrow(new InvalidCursorException());
+        assertEquals(HttpStatus.BAD_REQUEST, projectController.getAllProjects(PLACEHOLDER_JWT, "notACursor", null).getStatusCode());
     }
 
     @SneakyThrows
     @Test
     void updateProjectById() {
         ProjectRequest projectRequest = new ProjectRequest();
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        when(projectService.updateProjectById("placeholderJwt",1L, projectRequest)).thenReturn(PROJECT_2);
-        assertEquals(ResponseEntity.ok(PROJECT_2), projectController.updateProjectById(1L, "bearer placeholderJwt", projectRequest));
+        when(projectService.updateProjectById(PLACEHOLDER_JWT,1L, projectRequest)).thenReturn(PROJECT_2);
+        assertEquals(ResponseEntity.ok(PROJECT_2), projectController.updateProjectById(1L, PLACEHOLDER_JWT, projectRequest));
     }
 
     @Test
     void updateProjectByIdBadJwtTest() {
         ProjectRequest projectRequest = new ProjectRequest();
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        assertEquals(HttpStatus.BAD_REQUEST, projectController.updateProjectById(1l, "bearer badJwt", projectRequest).getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST, projectController.updateProjectById(1l, null, projectRequest).getStatusCode());
     }
 
     @SneakyThrows
     @Test
     void updateProjectByIdAccessDeniedTest() {
         ProjectRequest projectRequest = new ProjectRequest();
-        when(jwtUtils.validateJwtToken("placeholderWrongJwt")).thenReturn(true);
-        when(projectService.updateProjectById("placeholderWrongJwt",1L, projectRequest)).thenThrow(new AccessDeniedException());
-        assertEquals(HttpStatus.UNAUTHORIZED, projectController.updateProjectById(1L, "bearer placeholderWrongJwt", projectRequest).getStatusCode());
+        when(projectService.updateProjectById(PLACEHOLDER_JWT,1L, projectRequest)).thenThrow(new AccessDeniedException());
+        assertEquals(HttpStatus.UNAUTHORIZED, projectController.updateProjectById(1L, PLACEHOLDER_JWT, projectRequest).getStatusCode());
     }
 
     @SneakyThrows
     @Test
     void updateProjectByIdNoContentTest() {
         ProjectRequest projectRequest = new ProjectRequest();
-        when(jwtUtils.validateJwtToken("placeholderWrongJwt")).thenReturn(true);
-        when(projectService.updateProjectById("placeholderWrongJwt",1L, projectRequest)).thenThrow(new NoSuchProjectException());
-        assertEquals(HttpStatus.NO_CONTENT, projectController.updateProjectById(1L, "bearer placeholderWrongJwt", projectRequest).getStatusCode());
+        when(projectService.updateProjectById(PLACEHOLDER_JWT,1L, projectRequest)).thenThrow(new NoSuchProjectException());
+        assertEquals(HttpStatus.NO_CONTENT, projectController.updateProjectById(1L, PLACEHOLDER_JWT, projectRequest).getStatusCode());
     }
 
     @SneakyThrows
     @Test
     void deleteProjectById() {
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        when(projectService.deleteProjectById("placeholderJwt", 1l)).thenReturn(PROJECT_1);
-        assertEquals(ResponseEntity.ok(PROJECT_1), projectController.deleteProjectById(1L, "bearer placeholderJwt"));
+        when(projectService.deleteProjectById(PLACEHOLDER_JWT, 1l)).thenReturn(PROJECT_1);
+        assertEquals(ResponseEntity.ok(PROJECT_1), projectController.deleteProjectById(1L, PLACEHOLDER_JWT));
     }
 
     @Test
     void deleteProjectByIdBadJwtTest() {
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        assertEquals(HttpStatus.BAD_REQUEST,projectController.deleteProjectById(1L, "bearer badJwt").getStatusCode());
+        assertEquals(HttpStatus.BAD_REQUEST,projectController.deleteProjectById(1L, null).getStatusCode());
     }
 
     @SneakyThrows
     @Test
     void deleteProjectByIdAccessDeniedTest() {
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        when(projectService.deleteProjectById("placeholderJwt", 1l)).thenThrow(new AccessDeniedException());
-        assertEquals(HttpStatus.UNAUTHORIZED, projectController.deleteProjectById(1L, "bearer placeholderJwt").getStatusCode());
+        when(projectService.deleteProjectById(PLACEHOLDER_JWT, 1l)).thenThrow(new AccessDeniedException());
+        assertEquals(HttpStatus.UNAUTHORIZED, projectController.deleteProjectById(1L, PLACEHOLDER_JWT).getStatusCode());
     }
 
     @SneakyThrows
     @Test
     void deleteProjectByIdNoContentTest() {
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        when(projectService.deleteProjectById("placeholderJwt", 1l)).thenThrow(new NoSuchTaskException());
-        assertEquals(HttpStatus.NO_CONTENT, projectController.deleteProjectById(1L, "bearer placeholderJwt").getStatusCode());
+        when(projectService.deleteProjectById(PLACEHOLDER_JWT, 1l)).thenThrow(new NoSuchTaskException());
+        assertEquals(HttpStatus.NO_CONTENT, projectController.deleteProjectById(1L, PLACEHOLDER_JWT).getStatusCode());
     }
 
     @SneakyThrows
     @Test
     void addTaskToProjectTest() {
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        when(projectService.addTaskToProject("placeholderJwt", 1L, TASK_REQUEST_1)).thenReturn(TASK_1);
-        assertEquals(ResponseEntity.ok(TASK_1), projectController.addTaskToProject(1L, "bearer:placeholderJwt", TASK_REQUEST_1));
+        when(projectService.addTaskToProject(PLACEHOLDER_JWT, 1L, TASK_REQUEST_1)).thenReturn(TASK_1);
+        assertEquals(ResponseEntity.ok(TASK_1), projectController.addTaskToProject(1L, PLACEHOLDER_JWT, TASK_REQUEST_1));
     }
     @SneakyThrows
     @Test
     void addTaskToProjectNoSuchTaskTest() {
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        when(projectService.addTaskToProject("placeholderJwt", 1L, TASK_REQUEST_1)).thenThrow(new NoSuchProjectException());
-        assertEquals(HttpStatus.NO_CONTENT, projectController.addTaskToProject(1L, "bearer:placeholderJwt", TASK_REQUEST_1).getStatusCode());
+        when(projectService.addTaskToProject(PLACEHOLDER_JWT, 1L, TASK_REQUEST_1)).thenThrow(new NoSuchProjectException());
+        assertEquals(HttpStatus.NO_CONTENT, projectController.addTaskToProject(1L, PLACEHOLDER_JWT, TASK_REQUEST_1).getStatusCode());
     }
 
     @SneakyThrows
     @Test
     void addTaskToProjectAccessDeniedTest() {
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        when(projectService.addTaskToProject("placeholderJwt", 1L, TASK_REQUEST_1)).thenThrow(new AccessDeniedException());
-        assertEquals(HttpStatus.UNAUTHORIZED, projectController.addTaskToProject(1L, "bearer:placeholderJwt", TASK_REQUEST_1).getStatusCode());
+        when(projectService.addTaskToProject(PLACEHOLDER_JWT, 1L, TASK_REQUEST_1)).thenThrow(new AccessDeniedException());
+        assertEquals(HttpStatus.UNAUTHORIZED, projectController.addTaskToProject(1L, PLACEHOLDER_JWT, TASK_REQUEST_1).getStatusCode());
     }
 }
\ No newline at end of file
@@ -7,7 +7,10 @@ import com.lazy.todo.models.Task;
 import com.lazy.todo.models.User;
 import com.lazy.todo.models.gson.LocalDateAdapter;
 import com.lazy.todo.payload.request.TaskRequest;
+import com.lazy.todo.payload.response.PageResponse;
+import com.lazy.todo.payload.response.TaskSummary;
 import com.lazy.todo.security.jwt.JwtUtils;
+import com.lazy.todo.security.jwt.VerifiedJwt;
 import com.lazy.todo.services.AccountService;
 import com.lazy.todo.services.SortingService;
 import com.lazy.todo.services.TaskService;
@@ -68,8 +71,14 @@ class TaskControllerIntegrationTest {
 
     List<Task> TASKS = new ArrayList<>(Arrays.asList(TASK_1,TASK_2));
 
+    List<TaskSummary> TASK_SUMMARIES = new ArrayList<>(Arrays.asList(
+            new TaskSummary(1L, "title1", "description1", null, null, null, false, 0, 0),
+            new TaskSummary(2L, "title2", "description2", null, null, null, false, 0, 0)));
+
     User USER_1 = new User("testusername1", "test@test.co.uk", "testpassword1");
     User USER_2 = new User("testusername2", "test@test.com", "testpassword2");
+
+    VerifiedJwt PLACEHOLDER_JWT = new VerifiedJwt("placeholderJwt", "testusername1", new Date(), new Date());
     Set<String> USERNAMES = new HashSet<>(Arrays.asList(USER_1.getUsername(), USER_2.getUsername()));
 
     @SneakyThrows
@@ -77,9 +86,9 @@ class TaskControllerIntegrationTest {
     void newTasksIntegrationTest() {
         TaskRequest taskRequest = new TaskRequest("title3", "description3");
         Task task = new Task(taskRequest.getTitle(), taskRequest.getDescription());
-        when(taskService.saveNewTask(eq("placeholderJwt"), any()))
+        when(taskService.saveNewTask(eq(PLACEHOLDER_JWT), any()))
                 .thenReturn(task);
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
+        when(jwtUtils.parseJwtToken("placeholderJwt")).thenReturn(PLACEHOLDER_JWT);
         mockMvc.perform(
                 post("/api/task/new")
 
@@ -96,8 +105,8 @@ class TaskControllerIntegrationTest {
     @SneakyThrows
     @Test
     void getTaskByIdIntegrationTest() {
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        when(taskService.getTaskById("placeholderJwt", 1L)).thenReturn(TASK_1);
+        when(jwtUtils.parseJwtToken("placeholderJwt")).thenReturn(PLACEHOLDER_JWT);
+        when(taskService.getTaskById(PLACEHOLDER_JWT, 1L)).thenReturn(TASK_1);
         mockMvc.perform(
                         get("/api/task/1")
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -112,8 +121,8 @@ class TaskControllerIntegrationTest {
 
     @Test
     void getAllTasksIntegrationTest() throws Exception {
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        when(taskService.getAllTasks("placeholderJwt")).thenReturn(TASKS);
+        when(jwtUtils.parseJwtToken("placeholderJwt")).thenReturn(PLACEHOLDER_JWT);
+        when(taskService.getAllTasks(PLACEHOLDER_JWT, null, null)).thenReturn(new PageResponse<>(TASK_SUMMARIES, null));
         mockMvc.perform(
                         get("/api/task/all")
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -122,15 +131,15 @@ class TaskControllerIntegrationTest {
                 .andDo(print())
                 .andExpect(status().isOk())
                 //cannot guarantee order of the set so accept either option
-                .andExpect(jsonPath("$.[0].title", anyOf(is(TASK_1.getTitle()), is(TASK_2.getTitle()))))
-                .andExpect(jsonPath("$.[1].title", anyOf(is(TASK_1.getTitle()), is(TASK_2.getTitle()))))
+                .andExpect(jsonPath("$.items[0].title", anyOf(is(TASK_1.getTitle()), is(TASK_2.getTitle()))))
+                .andExpect(jsonPath("$.items[1].title", anyOf(is(TASK_1.getTitle()), is(TASK_2.getTitle()))))
                 .andReturn().getResponse().getContentAsString();
     }
 
     @Test
     void getTaskUsersTest() throws Exception {
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        when(taskService.getTaskUsers("placeholderJwt", 1L)).thenReturn(USERNAMES);
+        when(jwtUtils.parseJwtToken("placeholderJwt")).thenReturn(PLACEHOLDER_JWT);
+        when(taskService.getTaskUsers(PLACEHOLDER_JWT, 1L)).thenReturn(USERNAMES);
         mockMvc.perform(
                         get("/api/task/users/1")
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -145,8 +154,8 @@ class TaskControllerIntegrationTest {
 
     @Test
     void updateTaskTest() throws Exception {
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        when(taskService.updateTaskById(eq("placeholderJwt"),eq(1L), any())).thenReturn(TASK_1);
+        when(jwtUtils.parseJwtToken("placeholderJwt")).thenReturn(PLACEHOLDER_JWT);
+        when(taskService.updateTaskById(eq(PLACEHOLDER_JWT),eq(1L), any())).thenReturn(TASK_1);
         TaskRequest taskRequest = new TaskRequest("newTitle", "newDescription");
         mockMvc.perform(
                         put("/api/task/1")
@@ -162,8 +171,8 @@ class TaskControllerIntegrationTest {
 
     @Test
     void deleteTaskTest() throws Exception {
-        when(jwtUtils.validateJwtToken("placeholderJwt")).thenReturn(true);
-        when(taskService.deleteTaskById("placeholderJwt", 1L)).thenReturn(TASK_1);
+        when(jwtUtils.parseJwtToken("placeholderJwt")).thenReturn(PLACEHOLDER_JWT);
+        when(taskService.deleteTaskById(PLACEHOLDER_JWT, 1L)).thenReturn(TASK_1);
         mockMvc.perform(
                         delete("/api/task/1")
                                 .contentType(MediaType.APPLICATION_JSON)
@@ -0,0 +1,87 @@
+package com.lazy.todo.repository;
+
+import com.lazy.todo.models.CompletionBucket;
+import com.lazy.todo.models.CompletionBucketId;
+import com.lazy.todo.models.Project;
+import com.lazy.todo.models.Task;
+import com.lazy.todo.models.User;
+import com.lazy.todo.payload.response.CompletionCount;
+import com.lazy.todo.payload.response.ProjectCompletions;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class CompletionBucketRepositoryIntegrationTest {
+
+    static final LocalDate MONDAY = LocalDate.of(2023, 1, 2);
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    CompletionBucketRepository completionBucketRepository;
+
+    @Test
+    void addToTaskOwnerBucketsTest() {
+        User owner = entityManager.persist(new User("owner", "owner@test.com", "testPassword"));
+        User coOwner = entityManager.persist(new User("coOwner", "coOwner@test.com", "testPassword"));
+        Project project = new Project("project", "description");
+        project.setOwner(owner);
+        entityManager.persist(project);
+        Task shared = new Task("shared", "description");
+        shared.setProject(project);
+        entityManager.persist(shared);
+        Task loose = entityManager.persist(new Task("loose", "description"));
+        owner.getTasks().add(shared);
+        owner.getTasks().add(loose);
+        coOwner.getTasks().add(shared);
+        entityManager.flush();
+
+        //the first completion inserts a bucket per owner, later ones add to it
+        assertEquals(0, completionBucketRepository.addToTaskOwnerBuckets(shared.getId(), MONDAY, 1));
+        assertEquals(2, completionBucketRepository.insertMissingTaskOwnerBuckets(shared.getId(), MONDAY));
+        complete(loose, MONDAY);
+        complete(loose, MONDAY.plusDays(1));
+        completionBucketRepository.addToTaskOwnerBuckets(loose.getId(), MONDAY.plusDays(1), -1);
+        //taking a completion away from a day without a bucket changes nothing
+        assertEquals(0, completionBucketRepository.addToTaskOwnerBuckets(loose.getId(), MONDAY.plusDays(2), -1));
+        entityManager.clear();
+        assertNull(entityManager.find(CompletionBucket.class,
+                new CompletionBucketId(owner.getId(), MONDAY.plusDays(2), CompletionBucket.NO_PROJECT)));
+
+        List<CompletionCount> daily = completionBucketRepository.findDailyByUserId(owner.getId(), MONDAY, MONDAY.plusDays(6));
+        //a bucket that went back to zero is not reported
+        assertEquals(1, daily.size());
+        assertEquals(MONDAY, daily.get(0).getStart());
+        assertEquals(2, daily.get(0).getCompleted());
+        assertEquals(1, completionBucketRepository
+                .findDailyByUserIdAndProjectId(coOwner.getId(), MONDAY, MONDAY, project.getId()).get(0).getCompleted());
+
+        List<ProjectCompletions> projects = completionBucketRepository.findProjectTotalsByUserId(owner.getId(), MONDAY, MONDAY);
+        assertEquals(2, projects.size());
+        assertEquals(CompletionBucket.NO_PROJECT, projects.get(0).getProjectId());
+        assertEquals(project.getId(), projects.get(1).getProjectId());
+
+        assertEquals(2, completionBucketRepository.deleteByProjectId(project.getId()));
+        assertTrue(completionBucketRepository.findDailyByUserId(coOwner.getId(), MONDAY, MONDAY).isEmpty());
+        assertEquals(2, completionBucketRepository.deleteByUserId(owner.getId()));
+        assertTrue(completionBucketRepository.findDailyByUserId(owner.getId(), MONDAY, MONDAY.plusDays(6)).isEmpty());
+    }
+
+    //what CompletionStatsService.taskChanged runs for a completion
+    private void complete(Task task, LocalDate completedOn) {
+        completionBucketRepository.addToTaskOwnerBuckets(task.getId(), completedOn, 1);
+        completionBucketRepository.insertMissingTaskOwnerBuckets(task.getId(), completedOn);
+    }
+}
@@ -0,0 +1,116 @@
+package com.lazy.todo.repository;
+
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//runs the hot repository methods, captures the sql hibernate generates for them and EXPLAINs that against the
+//migrated schema, so a changed query or a dropped index in db/migration fails here instead of showing up as a
+//full scan in production
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.session_factory.statement_inspector="
+        + "com.lazy.todo.repository.QueryPlanIntegrationTest$CapturingInspector")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class QueryPlanIntegrationTest {
+
+    static final LocalDate YESTERDAY = LocalDate.now().minusDays(1);
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    TaskRepository taskRepository;
+
+    @Autowired
+    ProjectRepository projectRepository;
+
+    @Autowired
+    RevokedTokenRepository revokedTokenRepository;
+
+    @Test
+    void taskPageUsesIndexTest() {
+        String sql = sqlOf(() -> taskRepository.findPageByUserId(1L, 0, 0L, PageRequest.of(0, 51)));
+        assertUsesIndex(sql, "idx_user_tasks_user_task", 1L, 0, 0, 0L, 51);
+    }
+
+    @Test
+    void currentTasksUseIndexTest() {
+        String sql = sqlOf(() -> taskRepository.findCurrentByUserId(1L, YESTERDAY));
+        assertUsesIndex(sql, "idx_user_tasks_user_task", 1L, YESTERDAY);
+    }
+
+    //the full select list isn't covered by idx_tasks_project_current, so h2 costs it the same as the foreign key index
+    //and may seek through either one, what matters here is the seek on project_id
+    @Test
+    void currentProjectTasksUseIndexTest() {
+        String sql = sqlOf(() -> taskRepository.findCurrentByProjectId(1L, YESTERDAY));
+        assertUsesIndex(sql, ": project_id = ?1 */", 1L, YESTERDAY);
+    }
+
+    //same as above, h2 doesn't weigh the order by when it picks between idx_projects_owner_priority_id and the foreign
+    //key index, mysql does and reads the page off the composite index
+    @Test
+    void projectPageUsesIndexTest() {
+        String sql = sqlOf(() -> projectRepository.findPageByOwnerId(1L, 0, 0L, PageRequest.of(0, 51)));
+        assertUsesIndex(sql, ": owner_id = ?1 */", 1L, 0, 0, 0L, 51);
+    }
+
+    @Test
+    void taskOwnershipUsesIndexTest() {
+        String sql = sqlOf(() -> taskRepository.existsByUserIdAndTaskId(1L, 2L));
+        assertUsesIndex(sql, "idx_user_tasks_user_task", 1L, 2L);
+    }
+
+    @Test
+    void scoreCountUsesIndexTest() {
+        String sql = sqlOf(() -> taskRepository.countCompletedByUserIdSince(1L, YESTERDAY));
+        assertUsesIndex(sql, "idx_user_tasks_user_task", 1L, YESTERDAY);
+    }
+
+    @Test
+    void revocationPollUsesIndexTest() {
+        Instant since = Instant.now();
+        String sql = sqlOf(() -> revokedTokenRepository.findByRevokedAtGreaterThanEqual(since));
+        assertUsesIndex(sql, "idx_revoked_tokens_revoked_at", Timestamp.from(since));
+    }
+
+    //the one statement the repository call sent
+    private String sqlOf(Runnable repositoryCall) {
+        CapturingInspector.statements.clear();
+        repositoryCall.run();
+        assertEquals(1, CapturingInspector.statements.size(), CapturingInspector.statements.toString());
+        return CapturingInspector.statements.get(0);
+    }
+
+    //the parameters are bound in the order their placeholders appear in the generated sql, the expected string is an
+    //index name or the seek condition h2 prints next to the index it picked
+    private void assertUsesIndex(String sql, String index, Object... parameters) {
+        String plan = jdbcTemplate.queryForObject("explain " + sql, String.class, parameters);
+        assertFalse(plan.contains("tableScan"), plan);
+        assertTrue(plan.contains(index), plan);
+    }
+
+    public static class CapturingInspector implements StatementInspector {
+
+        static final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+    }
+}
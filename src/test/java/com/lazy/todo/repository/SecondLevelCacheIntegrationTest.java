@@ -0,0 +1,121 @@
+package com.lazy.todo.repository;
+
+import com.lazy.todo.models.ERole;
+import com.lazy.todo.models.Project;
+import com.lazy.todo.models.Role;
+import com.lazy.todo.models.Task;
+import com.lazy.todo.models.User;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//hibernate doesn't cache rows inserted by a transaction that is still open, so every repository call here commits.
+//rows with identity ids aren't cached on insert either, only once they are first read
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class SecondLevelCacheIntegrationTest {
+
+    @Autowired
+    EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    RoleRepository roleRepository;
+
+    @Autowired
+    ProjectRepository projectRepository;
+
+    @Autowired
+    UserRepository userRepository;
+
+    @Autowired
+    TaskRepository taskRepository;
+
+    SessionFactory sessionFactory;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+        statistics = sessionFactory.getStatistics();
+    }
+
+    @AfterEach
+    void tearDown() {
+        for (String table : new String[]{"user_tasks", "tasks", "projects", "user_roles", "users"}) {
+            jdbcTemplate.update("delete from " + table);
+        }
+        sessionFactory.getCache().evictAllRegions();
+        sessionFactory.getCache().evictQueryRegions();
+    }
+
+    @Test
+    void roleByNameIsCachedTest() {
+        Role role = roleRepository.findByName(ERole.ROLE_USER).orElseThrow(AssertionError::new);
+        statistics.clear();
+        assertEquals(role.getId(), roleRepository.findByName(ERole.ROLE_USER).orElseThrow(AssertionError::new).getId());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getQueryCacheHitCount());
+    }
+
+    @Test
+    void userWithRolesIsCachedTest() {
+        //the role comes from another session, as it does at signup
+        User user = new User("cachedUser", "cachedUser@test.com", "testPassword");
+        user.setRoles(Collections.singleton(roleRepository.findByName(ERole.ROLE_USER).orElseThrow(AssertionError::new)));
+        Long id = userRepository.save(user).getId();
+        userRepository.findById(id);
+        statistics.clear();
+        assertEquals("cachedUser", userRepository.findById(id).orElseThrow(AssertionError::new).getUsername());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("users").getHitCount());
+    }
+
+    @Test
+    void projectIsCachedTest() {
+        Long id = createProject().getId();
+        projectRepository.findById(id);
+        statistics.clear();
+        assertEquals("project", projectRepository.findById(id).orElseThrow(AssertionError::new).getTitle());
+        assertEquals(0, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getDomainDataRegionStatistics("projects").getHitCount());
+    }
+
+    @Test
+    void nativeLinkDeleteKeepsOtherRegionsTest() {
+        Project project = createProject();
+        Task task = taskRepository.save(new Task("task", "description"));
+        jdbcTemplate.update("insert into user_tasks (user_id, task_id) values (?, ?)", project.getOwner().getId(), task.getId());
+        projectRepository.findById(project.getId());
+        assertTrue(entityManagerFactory.getCache().contains(Project.class, project.getId()));
+        taskRepository.deleteUserLinksByTaskId(task.getId());
+        //user_tasks is not behind any cached entity, so the project stays cached
+        assertTrue(entityManagerFactory.getCache().contains(Project.class, project.getId()));
+    }
+
+    private Project createProject() {
+        User owner = userRepository.save(new User("owner", "owner@test.com", "testPassword"));
+        Project project = new Project("project", "description");
+        project.setOwner(owner);
+        return projectRepository.save(project);
+    }
+}
@@ -0,0 +1,90 @@
+package com.lazy.todo.repository;
+
+import com.lazy.todo.models.Project;
+import com.lazy.todo.models.Task;
+import com.lazy.todo.models.User;
+import com.lazy.todo.payload.response.TaskSummary;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//runs the real queries against an in-memory H2 database and counts the statements hibernate sends
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class TaskRepositoryIntegrationTest {
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    TaskRepository taskRepository;
+
+    Statistics statistics;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+    }
+
+    //findById is how TaskService loads the entity for /api/task/{id} and every update, the project stays a proxy
+    @Test
+    void taskLoadDoesNotFetchProjectTest() {
+        User user = entityManager.persist(new User("loadUser", "loadUser@test.com", "testPassword"));
+        Project project = new Project("project", "description");
+        project.setOwner(user);
+        Task task = new Task("task", "description");
+        task.setProject(entityManager.persist(project));
+        Long taskId = entityManager.persistAndGetId(task, Long.class);
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        task = taskRepository.findById(taskId).orElseThrow(AssertionError::new);
+        assertFalse(Hibernate.isInitialized(task.getProject()));
+        assertEquals(1, statistics.getPrepareStatementCount());
+    }
+
+    @Test
+    void countCompletedByUserIdSinceTest() {
+        User user = entityManager.persist(new User("scoreUser", "scoreUser@test.com", "testPassword"));
+        user.getTasks().add(entityManager.persist(completedTask("lastMonth", LocalDate.now().minusMonths(1))));
+        user.getTasks().add(entityManager.persist(completedTask("twoYearsAgo", LocalDate.now().minusYears(2))));
+        user.getTasks().add(entityManager.persist(new Task("open", "description")));
+        entityManager.flush();
+        assertEquals(1, taskRepository.countCompletedByUserIdSince(user.getId(), LocalDate.now().minusYears(1)));
+    }
+
+    @Test
+    void findCurrentByUserIdTest() {
+        User user = entityManager.persist(new User("currentUser", "currentUser@test.com", "testPassword"));
+        user.getTasks().add(entityManager.persist(new Task("open", "description")));
+        user.getTasks().add(entityManager.persist(completedTask("today", LocalDate.now())));
+        user.getTasks().add(entityManager.persist(completedTask("lastWeek", LocalDate.now().minusWeeks(1))));
+        entityManager.flush();
+        List<TaskSummary> current = taskRepository.findCurrentByUserId(user.getId(), LocalDate.now().minusDays(1));
+        assertEquals(Arrays.asList("open", "today"),
+                current.stream().map(TaskSummary::getTitle).sorted().collect(Collectors.toList()));
+    }
+
+    private Task completedTask(String title, LocalDate completedOn) {
+        Task task = new Task(title, "description");
+        task.setChecked(true);
+        task.setCompletedOn(completedOn);
+        return task;
+    }
+}
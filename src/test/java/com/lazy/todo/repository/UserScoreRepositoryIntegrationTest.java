@@ -0,0 +1,107 @@
+package com.lazy.todo.repository;
+
+import com.lazy.todo.models.Project;
+import com.lazy.todo.models.Task;
+import com.lazy.todo.models.User;
+import com.lazy.todo.models.UserScore;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@ActiveProfiles("h2")
+class UserScoreRepositoryIntegrationTest {
+
+    @Autowired
+    TestEntityManager entityManager;
+
+    @Autowired
+    UserScoreRepository userScoreRepository;
+
+    @Test
+    void insertMissingCompletedCountsSinceTest() {
+        User user = entityManager.persist(new User("scoreUser", "scoreUser@test.com", "testPassword"));
+        User idleUser = entityManager.persist(new User("idleUser", "idleUser@test.com", "testPassword"));
+        user.getTasks().add(entityManager.persist(completedTask("lastMonth", LocalDate.now().minusMonths(1))));
+        user.getTasks().add(entityManager.persist(completedTask("lastWeek", LocalDate.now().minusWeeks(1))));
+        user.getTasks().add(entityManager.persist(completedTask("twoYearsAgo", LocalDate.now().minusYears(2))));
+        user.getTasks().add(entityManager.persist(new Task("open", "description")));
+        entityManager.flush();
+        userScoreRepository.insertMissingCompletedCountsSince(LocalDate.now().minusYears(1));
+        entityManager.clear();
+        assertEquals(2, userScoreRepository.findById(user.getId()).map(UserScore::getScore).orElse(-1L));
+        //users without completions still get a row, so their reads don't fall back to counting
+        assertEquals(0, userScoreRepository.findById(idleUser.getId()).map(UserScore::getScore).orElse(-1L));
+        //a second run finds nothing missing
+        assertEquals(0, userScoreRepository.insertMissingCompletedCountsSince(LocalDate.now().minusYears(1)));
+    }
+
+    @Test
+    void updateCompletedCountsSinceTest() {
+        User user = entityManager.persist(new User("driftUser", "driftUser@test.com", "testPassword"));
+        user.getTasks().add(entityManager.persist(completedTask("lastWeek", LocalDate.now().minusWeeks(1))));
+        user.getTasks().add(entityManager.persist(completedTask("twoYearsAgo", LocalDate.now().minusYears(2))));
+        entityManager.persist(new UserScore(user.getId(), 7));
+        entityManager.flush();
+        userScoreRepository.updateCompletedCountsSince(LocalDate.now().minusYears(1));
+        entityManager.clear();
+        assertEquals(1, userScoreRepository.findById(user.getId()).map(UserScore::getScore).orElse(-1L));
+    }
+
+    @Test
+    void subtractProjectCompletionsSinceTest() {
+        User owner = entityManager.persist(new User("owner", "owner@test.com", "testPassword"));
+        User other = entityManager.persist(new User("other", "other@test.com", "testPassword"));
+        Project project = new Project("project", "description");
+        project.setOwner(owner);
+        entityManager.persist(project);
+        Task inProject = completedTask("inProject", LocalDate.now().minusWeeks(1));
+        inProject.setProject(project);
+        Task openInProject = new Task("openInProject", "description");
+        openInProject.setProject(project);
+        owner.getTasks().add(entityManager.persist(inProject));
+        owner.getTasks().add(entityManager.persist(openInProject));
+        owner.getTasks().add(entityManager.persist(completedTask("outside", LocalDate.now().minusWeeks(1))));
+        entityManager.persist(new UserScore(owner.getId(), 2));
+        entityManager.persist(new UserScore(other.getId(), 4));
+        entityManager.flush();
+        assertEquals(1, userScoreRepository.subtractProjectCompletionsSince(project.getId(), LocalDate.now().minusYears(1)));
+        entityManager.clear();
+        assertEquals(1, userScoreRepository.findById(owner.getId()).map(UserScore::getScore).orElse(-1L));
+        assertEquals(4, userScoreRepository.findById(other.getId()).map(UserScore::getScore).orElse(-1L));
+    }
+
+    @Test
+    void addToScoreOfTaskOwnersTest() {
+        User owner = entityManager.persist(new User("owner", "owner@test.com", "testPassword"));
+        User coOwner = entityManager.persist(new User("coOwner", "coOwner@test.com", "testPassword"));
+        User other = entityManager.persist(new User("other", "other@test.com", "testPassword"));
+        Task shared = entityManager.persist(new Task("shared", "description"));
+        owner.getTasks().add(shared);
+        coOwner.getTasks().add(shared);
+        entityManager.persist(new UserScore(owner.getId(), 3));
+        entityManager.persist(new UserScore(coOwner.getId(), 0));
+        entityManager.persist(new UserScore(other.getId(), 5));
+        entityManager.flush();
+        assertEquals(2, userScoreRepository.addToScoreOfTaskOwners(shared.getId(), 1));
+        entityManager.clear();
+        assertEquals(4, userScoreRepository.findById(owner.getId()).map(UserScore::getScore).orElse(-1L));
+        assertEquals(1, userScoreRepository.findById(coOwner.getId()).map(UserScore::getScore).orElse(-1L));
+        assertEquals(5, userScoreRepository.findById(other.getId()).map(UserScore::getScore).orElse(-1L));
+    }
+
+    private Task completedTask(String title, LocalDate completedOn) {
+        Task task = new Task(title, "description");
+        task.setChecked(true);
+        task.setCompletedOn(completedOn);
+        return task;
+    }
+}
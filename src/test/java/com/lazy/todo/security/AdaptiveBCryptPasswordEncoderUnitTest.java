@@ -0,0 +1,45 @@
+package com.lazy.todo.security;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AdaptiveBCryptPasswordEncoderUnitTest {
+
+    AdaptiveBCryptPasswordEncoder encoder = new AdaptiveBCryptPasswordEncoder(6, 5);
+
+    @Test
+    void sameCostIsNotUpgradedTest() {
+        String encoded = encoder.encode("password");
+        assertTrue(encoder.matches("password", encoded));
+        assertFalse(encoder.upgradeEncoding(encoded));
+    }
+
+    @Test
+    void onlyCostsBelowTheFloorAreUpgradedTest() {
+        assertTrue(encoder.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password")));
+        //hashes from a node that calibrated a different cost are left as they are
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(5).encode("password")));
+        assertFalse(encoder.upgradeEncoding(new BCryptPasswordEncoder(7).encode("password")));
+    }
+
+    @Test
+    void floorAboveStrengthIsCappedTest() {
+        AdaptiveBCryptPasswordEncoder capped = new AdaptiveBCryptPasswordEncoder(5, 8);
+        assertTrue(capped.upgradeEncoding(new BCryptPasswordEncoder(4).encode("password")));
+        assertFalse(capped.upgradeEncoding(capped.encode("password")));
+    }
+
+    @Test
+    void unreadableHashIsNotUpgradedTest() {
+        assertFalse(encoder.upgradeEncoding(null));
+        assertFalse(encoder.upgradeEncoding("notAHash"));
+    }
+
+    @Test
+    void calibrateStaysWithinBoundsTest() {
+        assertEquals(4, AdaptiveBCryptPasswordEncoder.calibrate(0, 4, 6));
+        assertEquals(6, AdaptiveBCryptPasswordEncoder.calibrate(Long.MAX_VALUE, 4, 6));
+    }
+}
@@ -0,0 +1,39 @@
+package com.lazy.todo.security.jwt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtClaimsCacheUnitTest {
+
+    JwtClaimsCache claimsCache = new JwtClaimsCache(100, 60000);
+
+    @Test
+    void cachedTokenIsReturnedTest() {
+        VerifiedJwt jwt = new VerifiedJwt("placeholderJwt", "testUser1", new Date(),
+                new Date(System.currentTimeMillis() + 60000));
+        assertNull(claimsCache.get("placeholderJwt"));
+        claimsCache.put(jwt);
+        assertSame(jwt, claimsCache.get("placeholderJwt"));
+        assertEquals(1, claimsCache.getHitCount());
+        assertEquals(1, claimsCache.getMissCount());
+    }
+
+    @Test
+    void expiredTokenIsNotReturnedTest() {
+        //a token that has already passed its exp must never come back out of the cache
+        VerifiedJwt jwt = new VerifiedJwt("expiredJwt", "testUser1", new Date(),
+                new Date(System.currentTimeMillis() - 1000));
+        claimsCache.put(jwt);
+        assertNull(claimsCache.get("expiredJwt"));
+    }
+
+    @Test
+    void differentTokenIsNotReturnedTest() {
+        claimsCache.put(new VerifiedJwt("placeholderJwt", "testUser1", new Date(),
+                new Date(System.currentTimeMillis() + 60000)));
+        assertNull(claimsCache.get("placeholderJwt2"));
+    }
+}
@@ -0,0 +1,130 @@
+package com.lazy.todo.security.jwt;
+
+import com.lazy.todo.security.services.UserDetailsImpl;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collections;
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwtUtilsUnitTest {
+
+    static final String SECRET = "bGF6eVRvZG9Vbml0VGVzdFNlY3JldFRoYXRJc0xvbmdFbm91Z2hGb3JIUzUxMlNpZ25pbmdLZXlzT25seQ==";
+
+    JwtUtils jwtUtils = new JwtUtils();
+
+    JwtRejectionLogger rejectionLogger = new JwtRejectionLogger(60000);
+
+    TokenRevocationList revocationList = new TokenRevocationList(1024);
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(jwtUtils, "jwtSecret", SECRET);
+        ReflectionTestUtils.setField(jwtUtils, "jwtExpirationMs", 60000);
+        ReflectionTestUtils.setField(jwtUtils, "claimsCache", new JwtClaimsCache(100, 60000));
+        ReflectionTestUtils.setField(jwtUtils, "rejectionLogger", rejectionLogger);
+        ReflectionTestUtils.setField(jwtUtils, "revocationList", revocationList);
+        jwtUtils.init();
+    }
+
+    @Test
+    void generatedTokenIsValidTest() {
+        UserDetailsImpl principal = new UserDetailsImpl(1L, "testUser1", "test@test1.com", null,
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+        String token = jwtUtils.generateJwtToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+        assertTrue(jwtUtils.validateJwtToken(token));
+        assertEquals("testUser1", jwtUtils.getUserNameFromJwtToken(token));
+        assertEquals(1L, jwtUtils.parseJwtToken(token).getUserId());
+    }
+
+    @Test
+    void tokenSignedWithSecretStringIsValidTest() {
+        //tokens issued before the key was precomputed were signed with the base64 secret directly
+        String token = Jwts.builder()
+                .setSubject("testUser1")
+                .setIssuedAt(new Date())
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+        assertEquals("testUser1", jwtUtils.getUserNameFromJwtToken(token));
+    }
+
+    @Test
+    void tokenSignedWithOtherSecretIsInvalidTest() {
+        String token = Jwts.builder()
+                .setSubject("testUser1")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, SECRET.replace('b', 'c'))
+                .compact();
+        assertFalse(jwtUtils.validateJwtToken(token));
+        assertEquals(1, rejectionLogger.getRejectedCount(RejectionReason.BAD_SIGNATURE));
+    }
+
+    @Test
+    void revokedTokenIsInvalidTest() {
+        String token = Jwts.builder()
+                .setSubject("testUser1")
+                .setIssuedAt(new Date(System.currentTimeMillis() - 5000))
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+        assertTrue(jwtUtils.validateJwtToken(token));
+        //the token is already in the claims cache, revocation must still apply to it
+        revocationList.revoke("testUser1", System.currentTimeMillis());
+        assertFalse(jwtUtils.validateJwtToken(token));
+        assertEquals(1, rejectionLogger.getRejectedCount(RejectionReason.REVOKED));
+    }
+
+    @Test
+    void tokenIssuedJustAfterRevocationIsValidTest() {
+        UserDetailsImpl principal = new UserDetailsImpl(1L, "testUser1", "test@test1.com", null,
+                Collections.singletonList(new SimpleGrantedAuthority("ROLE_USER")));
+        //revoked a moment ago, most likely within the same second as the new token's whole-second iat
+        long revokedAt = System.currentTimeMillis();
+        revocationList.revoke("testUser1", revokedAt);
+        while (System.currentTimeMillis() == revokedAt) {
+            Thread.onSpinWait();
+        }
+        String token = jwtUtils.generateJwtToken(principal);
+        VerifiedJwt verifiedJwt = jwtUtils.parseJwtToken(token);
+        assertNotNull(verifiedJwt);
+        assertTrue(verifiedJwt.getIssuedAt().getTime() > revokedAt);
+    }
+
+    @Test
+    void tokenWithMalformedUserIdIsRejectedTest() {
+        String token = Jwts.builder()
+                .setSubject("testUser1")
+                .claim(JwtUtils.USER_ID_CLAIM, "notANumber")
+                .setExpiration(new Date(System.currentTimeMillis() + 60000))
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+        assertNull(jwtUtils.parseJwtToken(token));
+        assertEquals(1, rejectionLogger.getRejectedCount(RejectionReason.MALFORMED));
+    }
+
+    @Test
+    void rejectionsAreCountedPerReasonTest() {
+        String expired = Jwts.builder()
+                .setSubject("testUser1")
+                .setExpiration(new Date(System.currentTimeMillis() - 60000))
+                .signWith(SignatureAlgorithm.HS512, SECRET)
+                .compact();
+        //only the first of these is logged, but every one of them is counted
+        for (int i = 0; i < 3; i++) {
+            assertNull(jwtUtils.parseJwtToken(expired));
+            assertNull(jwtUtils.parseJwtToken("notAJwt"));
+        }
+        assertEquals(3, rejectionLogger.getRejectedCount(RejectionReason.EXPIRED));
+        assertEquals(3, rejectionLogger.getRejectedCount(RejectionReason.MALFORMED));
+        assertEquals(0, rejectionLogger.getRejectedCount(RejectionReason.BAD_SIGNATURE));
+    }
+}
@@ -0,0 +1,50 @@
+package com.lazy.todo.security.jwt;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRevocationListUnitTest {
+
+    TokenRevocationList revocationList = new TokenRevocationList(1024);
+
+    static VerifiedJwt issuedAt(String username, long issuedAtMillis) {
+        return new VerifiedJwt("placeholderJwt", username, new Date(issuedAtMillis), new Date(issuedAtMillis + 60000));
+    }
+
+    @Test
+    void tokensIssuedBeforeRevocationAreRevokedTest() {
+        revocationList.revoke("testUser1", 10000);
+        assertTrue(revocationList.isRevoked(issuedAt("testUser1", 9000)));
+        assertTrue(revocationList.isRevoked(issuedAt("testUser1", 10000)));
+        //a token issued a moment later, in the same second, is a new session and stays valid
+        assertFalse(revocationList.isRevoked(issuedAt("testUser1", 10001)));
+    }
+
+    @Test
+    void otherUsersAreNotRevokedTest() {
+        revocationList.revoke("testUser1", 10000);
+        for (int i = 0; i < 100; i++) {
+            assertFalse(revocationList.isRevoked(issuedAt("testUser" + (i + 2), 9000)));
+        }
+    }
+
+    @Test
+    void laterRevocationWinsTest() {
+        revocationList.revoke("testUser1", 20000);
+        revocationList.revoke("testUser1", 10000);
+        assertTrue(revocationList.isRevoked(issuedAt("testUser1", 15000)));
+    }
+
+    @Test
+    void pruneDropsOldRevocationsTest() {
+        revocationList.revoke("testUser1", 10000);
+        revocationList.revoke("testUser2", 30000);
+        revocationList.prune(20000);
+        assertEquals(1, revocationList.size());
+        assertFalse(revocationList.isRevoked(issuedAt("testUser1", 9000)));
+        assertTrue(revocationList.isRevoked(issuedAt("testUser2", 9000)));
+    }
+}
@@ -0,0 +1,93 @@
+package com.lazy.todo.security.services;
+
+import com.lazy.todo.exceptions.InvalidRefreshTokenException;
+import com.lazy.todo.models.RefreshToken;
+import com.lazy.todo.models.User;
+import com.lazy.todo.repository.RefreshTokenRepository;
+import com.lazy.todo.repository.UserRepository;
+import com.lazy.todo.security.jwt.JwtUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.Instant;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@WebMvcTest(RefreshTokenService.class)
+class RefreshTokenServiceUnitTest {
+
+    @Autowired
+    RefreshTokenService refreshTokenService;
+
+    @MockBean
+    JwtUtils jwtUtils;
+
+    @MockBean
+    RefreshTokenRepository refreshTokenRepository;
+
+    @MockBean
+    UserRepository userRepository;
+
+    User USER_1 = new User("testUserName1", "test@test.co.uk", "testPassword1");
+
+    RefreshToken savedToken;
+
+    String issuedToken;
+
+    @BeforeEach
+    void setUp() {
+        USER_1.setId(1L);
+        when(userRepository.getReferenceById(1L)).thenReturn(USER_1);
+        issuedToken = refreshTokenService.createRefreshToken(1L);
+        ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
+        verify(refreshTokenRepository).save(captor.capture());
+        savedToken = captor.getValue();
+        savedToken.setId(10L);
+    }
+
+    @Test
+    void onlyTheHashIsStoredTest() {
+        assertNotEquals(issuedToken, savedToken.getTokenHash());
+        assertSame(USER_1, savedToken.getUser());
+        assertTrue(savedToken.getExpiryDate().isAfter(Instant.now()));
+    }
+
+    @Test
+    void useRefreshTokenTest() throws InvalidRefreshTokenException {
+        when(refreshTokenRepository.findByTokenHash(savedToken.getTokenHash())).thenReturn(Optional.of(savedToken));
+        when(refreshTokenRepository.deleteUsed(10L)).thenReturn(1);
+        UserDetailsImpl userDetails = refreshTokenService.useRefreshToken(issuedToken);
+        assertEquals(1L, userDetails.getId());
+        assertEquals(USER_1.getUsername(), userDetails.getUsername());
+    }
+
+    @Test
+    void unknownRefreshTokenTest() {
+        when(refreshTokenRepository.findByTokenHash(anyString())).thenReturn(Optional.empty());
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.useRefreshToken("unknownToken"));
+    }
+
+    @Test
+    void alreadyUsedRefreshTokenTest() {
+        //another request deleted the row first, so this one must not be able to rotate it as well
+        when(refreshTokenRepository.findByTokenHash(savedToken.getTokenHash())).thenReturn(Optional.of(savedToken));
+        when(refreshTokenRepository.deleteUsed(anyLong())).thenReturn(0);
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.useRefreshToken(issuedToken));
+    }
+
+    @Test
+    void expiredRefreshTokenTest() {
+        savedToken.setExpiryDate(Instant.now().minusSeconds(1));
+        when(refreshTokenRepository.findByTokenHash(savedToken.getTokenHash())).thenReturn(Optional.of(savedToken));
+        when(refreshTokenRepository.deleteUsed(10L)).thenReturn(1);
+        assertThrows(InvalidRefreshTokenException.class, () -> refreshTokenService.useRefreshToken(issuedToken));
+    }
+}
@@ -0,0 +1,50 @@
+package com.lazy.todo.security.services;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SigninExecutorUnitTest {
+
+    SigninExecutor signinExecutor = new SigninExecutor(1, 1);
+
+    @AfterEach
+    void tearDown() {
+        signinExecutor.shutdown();
+    }
+
+    @Test
+    void submittedTaskCompletesTest() throws Exception {
+        assertEquals("testUser1", signinExecutor.submit(() -> "testUser1").get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void fullQueueIsRejectedTest() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        //one task occupies the only thread, the next fills the queue, so a third has nowhere to go
+        CompletableFuture<Boolean> running = signinExecutor.submit(() -> {
+            started.countDown();
+            try {
+                return release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<String> queued = signinExecutor.submit(() -> "queued");
+        assertEquals(1, signinExecutor.getQueueDepth());
+
+        assertThrows(RejectedExecutionException.class, () -> signinExecutor.submit(() -> "rejected"));
+
+        release.countDown();
+        assertTrue(running.get(5, TimeUnit.SECONDS));
+        assertEquals("queued", queued.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,81 @@
+package com.lazy.todo.security.services;
+
+import com.lazy.todo.models.RevokedToken;
+import com.lazy.todo.repository.RevokedTokenRepository;
+import com.lazy.todo.security.jwt.TokenRevocationList;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+//built by hand rather than in a spring context, where the scheduled refresh would call the mocks while a test stubs them
+class TokenRevocationServiceUnitTest {
+
+    TokenRevocationService tokenRevocationService = new TokenRevocationService();
+
+    RevokedTokenRepository revokedTokenRepository = mock(RevokedTokenRepository.class);
+
+    RefreshTokenService refreshTokenService = mock(RefreshTokenService.class);
+
+    TokenRevocationList revocationList = mock(TokenRevocationList.class);
+
+    @BeforeEach
+    void setUp() {
+        tokenRevocationService.revokedTokenRepository = revokedTokenRepository;
+        tokenRevocationService.refreshTokenService = refreshTokenService;
+        tokenRevocationService.revocationList = revocationList;
+        ReflectionTestUtils.setField(tokenRevocationService, "jwtExpirationMs", 60000);
+        ReflectionTestUtils.setField(tokenRevocationService, "refreshOverlapMs", 60000);
+    }
+
+    @Test
+    void revokedAtIsStoredInMillisTest() {
+        when(revokedTokenRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        tokenRevocationService.revoke("testUser1");
+        ArgumentCaptor<RevokedToken> captor = ArgumentCaptor.forClass(RevokedToken.class);
+        verify(revokedTokenRepository).save(captor.capture());
+        Instant revokedAt = captor.getValue().getRevokedAt();
+        assertEquals(revokedAt, revokedAt.truncatedTo(ChronoUnit.MILLIS));
+        //the local list holds exactly what other instances will read back
+        verify(revocationList).revoke("testUser1", revokedAt.toEpochMilli());
+    }
+
+    @Test
+    void revocationInTransactionIsAppliedAfterCommitTest() {
+        when(revokedTokenRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            tokenRevocationService.revoke("testUser1");
+            verify(revocationList, never()).revoke(anyString(), anyLong());
+            //a rolled back transaction never calls afterCommit, so the user is left alone
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(revocationList).revoke(eq("testUser1"), anyLong());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void refreshRereadsAnOverlappingWindowTest() {
+        Instant beforeRefresh = Instant.now();
+        tokenRevocationService.refresh();
+        RevokedToken lateCommit = new RevokedToken("testUser1", beforeRefresh.minusSeconds(10));
+        when(revokedTokenRepository.findByRevokedAtGreaterThanEqual(any())).thenReturn(Collections.singletonList(lateCommit));
+        tokenRevocationService.refresh();
+        ArgumentCaptor<Instant> since = ArgumentCaptor.forClass(Instant.class);
+        verify(revokedTokenRepository, times(2)).findByRevokedAtGreaterThanEqual(since.capture());
+        //a row stamped before the previous refresh but committed after it is still picked up
+        assertTrue(since.getValue().isBefore(lateCommit.getRevokedAt()));
+        verify(revocationList).revoke("testUser1", lateCommit.getRevokedAt().toEpochMilli());
+    }
+}
@@ -0,0 +1,118 @@
+package com.lazy.todo.services;
+
+import com.lazy.todo.exceptions.InvalidStatsRangeException;
+import com.lazy.todo.payload.response.CompletionCount;
+import com.lazy.todo.payload.response.CompletionStatsResponse;
+import com.lazy.todo.payload.response.ProjectCompletions;
+import com.lazy.todo.repository.CompletionBucketRepository;
+import com.lazy.todo.repository.UserRepository;
+import com.lazy.todo.security.jwt.JwtUtils;
+import com.lazy.todo.security.jwt.VerifiedJwt;
+import com.lazy.todo.security.services.UserIdResolver;
+import lombok.SneakyThrows;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@WebMvcTest({CompletionStatsService.class, UserIdResolver.class})
+class CompletionStatsServiceUnitTest {
+
+    @Autowired
+    CompletionStatsService completionStatsService;
+
+    @MockBean
+    JwtUtils jwtUtils;
+
+    @MockBean
+    UserRepository userRepository;
+
+    @MockBean
+    CompletionBucketRepository completionBucketRepository;
+
+    VerifiedJwt JWT = new VerifiedJwt("placeholderJwt", "testUserName1", 1L, Collections.emptyList(), new Date(), new Date());
+
+    //Monday 2 Jan 2023 to Sunday 15 Jan 2023
+    LocalDate FROM = LocalDate.of(2023, 1, 2);
+    LocalDate TO = LocalDate.of(2023, 1, 15);
+
+    List<CompletionCount> DAILY = Arrays.asList(
+            new CompletionCount(LocalDate.of(2023, 1, 3), 2),
+            new CompletionCount(LocalDate.of(2023, 1, 4), 1),
+            new CompletionCount(LocalDate.of(2023, 1, 5), 1),
+            new CompletionCount(LocalDate.of(2023, 1, 13), 3),
+            new CompletionCount(LocalDate.of(2023, 1, 14), 1),
+            new CompletionCount(LocalDate.of(2023, 1, 15), 1));
+
+    @SneakyThrows
+    @Test
+    void getStatsByWeekTest() {
+        when(completionBucketRepository.findDailyByUserId(1L, FROM, TO)).thenReturn(DAILY);
+        when(completionBucketRepository.findProjectTotalsByUserId(1L, FROM, TO))
+                .thenReturn(Arrays.asList(new ProjectCompletions(0L, 5), new ProjectCompletions(7L, 4)));
+        CompletionStatsResponse stats = completionStatsService.getStats(JWT, FROM, TO, null, "week");
+        assertEquals(9, stats.getTotal());
+        assertEquals(Arrays.asList(FROM, FROM.plusWeeks(1)),
+                stats.getCompletions().stream().map(CompletionCount::getStart).collect(Collectors.toList()));
+        assertEquals(Arrays.asList(4L, 5L),
+                stats.getCompletions().stream().map(CompletionCount::getCompleted).collect(Collectors.toList()));
+        assertEquals(3, stats.getCurrentStreak());
+        assertEquals(3, stats.getLongestStreak());
+        //tasks without a project are reported with a null project id
+        assertNull(stats.getProjects().get(0).getProjectId());
+        assertEquals(7L, stats.getProjects().get(1).getProjectId());
+    }
+
+    @SneakyThrows
+    @Test
+    void getStatsForProjectTest() {
+        when(completionBucketRepository.findDailyByUserIdAndProjectId(1L, FROM, TO, 7L)).thenReturn(DAILY.subList(0, 3));
+        CompletionStatsResponse stats = completionStatsService.getStats(JWT, FROM, TO, 7L, null);
+        assertEquals("day", stats.getPeriod());
+        assertEquals(3, stats.getCompletions().size());
+        assertEquals(0, stats.getCurrentStreak());
+        assertTrue(stats.getProjects().isEmpty());
+        verify(completionBucketRepository, never()).findDailyByUserId(any(), any(), any());
+    }
+
+    @Test
+    void currentStreakIgnoresEmptyTodayTest() {
+        LocalDate today = LocalDate.of(2023, 1, 16);
+        assertEquals(3, CompletionStatsService.currentStreak(DAILY, today, today));
+        assertEquals(0, CompletionStatsService.currentStreak(DAILY, today, today.plusDays(1)));
+    }
+
+    @Test
+    void getStatsInvalidRangeTest() {
+        assertThrows(InvalidStatsRangeException.class,
+                () -> completionStatsService.getStats(JWT, TO, FROM, null, null));
+        assertThrows(InvalidStatsRangeException.class,
+                () -> completionStatsService.getStats(JWT, FROM.minusYears(2), TO, null, null));
+        assertThrows(InvalidStatsRangeException.class,
+                () -> completionStatsService.getStats(JWT, FROM, TO, null, "year"));
+        verifyNoInteractions(completionBucketRepository);
+    }
+
+    @Test
+    void taskChangedMovesCompletionTest() {
+        completionStatsService.taskChanged(1L, FROM, TO);
+        verify(completionBucketRepository).addToTaskOwnerBuckets(1L, FROM, -1);
+        verify(completionBucketRepository).addToTaskOwnerBuckets(1L, TO, 1);
+        //only the completed day can need a new bucket
+        verify(completionBucketRepository).insertMissingTaskOwnerBuckets(1L, TO);
+        verify(completionBucketRepository, never()).insertMissingTaskOwnerBuckets(1L, FROM);
+        completionStatsService.taskChanged(2L, TO, TO);
+        verify(completionBucketRepository, never()).addToTaskOwnerBuckets(eq(2L), any(), anyInt());
+    }
+}
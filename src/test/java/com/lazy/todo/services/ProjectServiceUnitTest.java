@@ -5,27 +5,40 @@ import com.lazy.todo.exceptions.NoSuchProjectException;
 import com.lazy.todo.models.Project;
 import com.lazy.todo.models.Task;
 import com.lazy.todo.models.User;
+import com.lazy.todo.payload.request.PriorityUpdate;
 import com.lazy.todo.payload.request.ProjectRequest;
+import com.lazy.todo.payload.response.PageResponse;
+import com.lazy.todo.payload.response.PriorityUpdateResponse;
+import com.lazy.todo.payload.response.ProjectSummary;
+import com.lazy.todo.payload.response.TaskSummary;
 import com.lazy.todo.repository.ProjectRepository;
 import com.lazy.todo.repository.TaskRepository;
 import com.lazy.todo.repository.UserRepository;
 import com.lazy.todo.security.jwt.JwtUtils;
+import com.lazy.todo.security.jwt.VerifiedJwt;
+import com.lazy.todo.security.services.UserIdResolver;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
+import javax.persistence.Cache;
+import javax.persistence.EntityManagerFactory;
 import java.time.LocalDate;
 import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
-@WebMvcTest(ProjectService.class)
+@WebMvcTest({ProjectService.class, UserIdResolver.class})
 class ProjectServiceUnitTest {
 
     @MockBean
@@ -43,6 +56,18 @@ class ProjectServiceUnitTest {
     @MockBean
     TaskService taskService;
 
+    @MockBean
+    JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    ScoreService scoreService;
+
+    @MockBean
+    CompletionStatsService completionStatsService;
+
+    @MockBean
+    EntityManagerFactory entityManagerFactory;
+
     @Autowired
     ProjectService projectService;
 
@@ -52,6 +77,13 @@ class ProjectServiceUnitTest {
 
     User USER_2 = new User("testUserName2", "test@test.com", "testPassword2");
 
+    VerifiedJwt PLACEHOLDER_JWT = new VerifiedJwt("placeholderJwt", USER_1.getUsername(), new Date(), new Date());
+
+    VerifiedJwt UNKNOWN_USER_JWT = new VerifiedJwt("placeholderJwt", "unknownUserName", new Date(), new Date());
+
+    //a token carrying the uid and roles claims, which needs no user lookup
+    VerifiedJwt CLAIMS_JWT = new VerifiedJwt("placeholderJwt", USER_1.getUsername(), 1L, Arrays.asList("ROLE_USER"), new Date(), new Date());
+
     Project PROJECT_1 = new Project("testTitle", "testDescription");
 
     Project PROJECT_2 = new Project("testTitle2", "testDescription2");
@@ -60,50 +92,64 @@ class ProjectServiceUnitTest {
 
     List<Task> tasks = new ArrayList<>(Arrays.asList(TASK_1));
 
+    ProjectSummary SUMMARY_1 = new ProjectSummary(3L, "testTitle", "testDescription", null, null, null, 5);
+
+    ProjectSummary SUMMARY_2 = new ProjectSummary(4L, "testTitle2", "testDescription2", null, null, null, 6);
+
+    List<TaskSummary> taskSummaries = new ArrayList<>(Arrays.asList(
+            new TaskSummary(1L, "title1", "description1", null, null, null, null, 0, 0)));
+
     @Test
     void newProjectTest() {
         ProjectRequest projectRequest = new ProjectRequest("NewTitle", "NewDescription");
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
         when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(USER_1));
         when(projectRepository.save(any())).thenReturn(new Project(projectRequest.getTitle(), projectRequest.getDescription()));
-        assertEquals(projectRequest.getTitle(), projectService.newProject("placeholderJwt", projectRequest).getTitle());
-        assertEquals(projectRequest.getDescription(), projectService.newProject("placeholderJwt", projectRequest).getDescription());
+        assertEquals(projectRequest.getTitle(), projectService.newProject(PLACEHOLDER_JWT, projectRequest).getTitle());
+        assertEquals(projectRequest.getDescription(), projectService.newProject(PLACEHOLDER_JWT, projectRequest).getDescription());
     }
 
     @Test
     void newProjectUserNameNotFoundTest() {
         ProjectRequest projectRequest = new ProjectRequest("NewTitle", "NewDescription");
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(USER_1));
+        when(userRepository.findByUsername(USER_1.getUsername())).thenReturn(Optional.of(USER_1));
         when(projectRepository.save(any())).thenReturn(new Project(projectRequest.getTitle(), projectRequest.getDescription()));
-        assertThrows(UsernameNotFoundException.class, () -> projectService.newProject("placeholderJwt", projectRequest));
+        assertThrows(UsernameNotFoundException.class, () -> projectService.newProject(UNKNOWN_USER_JWT, projectRequest));
     }
 
     @SneakyThrows
     @Test
     void getProjectByIdTest() {
         //ensure that users with Id's exist fot the function to compare to see if we are allowed access
+        USER_1.setId(1L);
         PROJECT_1.setOwner(USER_1);
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(USER_1));
+        when(userRepository.findIdByUsername(USER_1.getUsername())).thenReturn(Optional.of(1L));
         when(projectRepository.findById(1l)).thenReturn(Optional.ofNullable(PROJECT_1));
-        assertEquals(PROJECT_1, projectService.getProjectById("placeholderJwt", 1l));
+        assertEquals(PROJECT_1, projectService.getProjectById(PLACEHOLDER_JWT, 1l));
+    }
+
+    @SneakyThrows
+    @Test
+    void getProjectByIdWithUserClaimsTest() {
+        USER_1.setId(1L);
+        PROJECT_1.setOwner(USER_1);
+        when(projectRepository.findById(1l)).thenReturn(Optional.ofNullable(PROJECT_1));
+        assertEquals(PROJECT_1, projectService.getProjectById(CLAIMS_JWT, 1l));
+        verify(userRepository, never()).findIdByUsername(anyString());
     }
 
     @SneakyThrows
     @Test
     void getProjectByIdUsernameNotFoundTest() {
         PROJECT_1.setOwner(USER_1);
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
         when(projectRepository.findById(1l)).thenReturn(Optional.ofNullable(PROJECT_1));
-        assertThrows(UsernameNotFoundException.class, () -> projectService.getProjectById("placeholderJwt", 1l));
+        assertThrows(UsernameNotFoundException.class, () -> projectService.getProjectById(PLACEHOLDER_JWT, 1l));
     }
 
     @Test
     void getProjectByIdProjectNotFoundTest() {
         PROJECT_1.setOwner(USER_1);
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(USER_1));
-        assertThrows(NoSuchProjectException.class, () -> projectService.getProjectById("placeholderJwt", 1l));
+        when(userRepository.findIdByUsername(anyString())).thenReturn(Optional.of(1L));
+        assertThrows(NoSuchProjectException.class, () -> projectService.getProjectById(PLACEHOLDER_JWT, 1l));
     }
 
     @Test
@@ -112,108 +158,174 @@ class ProjectServiceUnitTest {
         PROJECT_1.setOwner(USER_2);
         USER_1.setId(1L);
         USER_2.setId(2L);
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(USER_1));
+        when(userRepository.findIdByUsername(anyString())).thenReturn(Optional.of(1L));
         when(projectRepository.findById(1l)).thenReturn(Optional.ofNullable(PROJECT_1));
-        assertThrows(AccessDeniedException.class, () -> projectService.getProjectById("placeholderJwt", 1l));
+        assertThrows(AccessDeniedException.class, () -> projectService.getProjectById(PLACEHOLDER_JWT, 1l));
 
     }
 
+    @SneakyThrows
     @Test
     void getAllProjectsByUserTest() {
-        USER_1.setProjects(projectList);
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(USER_1));
-        assertEquals(projectList, projectService.getAllProjectsByUser("placeholderJwt"));
+        when(userRepository.findIdByUsername(anyString())).thenReturn(Optional.of(1L));
+        List<ProjectSummary> projects = new ArrayList<>(Arrays.asList(SUMMARY_1));
+        when(projectRepository.findPageByOwnerId(1L, Integer.MIN_VALUE, 0L, PageRequest.of(0, 51))).thenReturn(projects);
+        PageResponse<ProjectSummary> page = projectService.getAllProjectsByUser(PLACEHOLDER_JWT, null, null);
+        assertEquals(projects, page.getItems());
+        assertNull(page.getNextCursor());
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllProjectsByUserNextPageTest() {
+        when(projectRepository.findPageByOwnerId(1L, Integer.MIN_VALUE, 0L, PageRequest.of(0, 2)))
+                .thenReturn(new ArrayList<>(Arrays.asList(SUMMARY_1, SUMMARY_2)));
+        PageResponse<ProjectSummary> page = projectService.getAllProjectsByUser(CLAIMS_JWT, null, 1);
+        assertEquals(Arrays.asList(SUMMARY_1), page.getItems());
+        when(projectRepository.findPageByOwnerId(1L, 5, 3L, PageRequest.of(0, 2)))
+                .thenReturn(new ArrayList<>(Arrays.asList(SUMMARY_2)));
+        assertEquals(Arrays.asList(SUMMARY_2), projectService.getAllProjectsByUser(CLAIMS_JWT, page.getNextCursor(), 1).getItems());
     }
 
     @Test
     void getAllProjectsByUserUserNameNotFoundTest() {
-        USER_1.setProjects(projectList);
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(USER_1));
-        assertThrows(UsernameNotFoundException.class, () -> projectService.getAllProjectsByUser("placeholderJwt"));
+        when(userRepository.findIdByUsername(USER_1.getUsername())).thenReturn(Optional.of(1L));
+        assertThrows(UsernameNotFoundException.class, () -> projectService.getAllProjectsByUser(UNKNOWN_USER_JWT, null, null));
     }
 
 
     @SneakyThrows
     @Test
     void updateProjectByIdTest() {
-        USER_1.setProjects(projectList);
+        when(projectRepository.existsByIdAndOwner_Id(1L, 1L)).thenReturn(true);
         ProjectRequest projectRequest = new ProjectRequest("NewTitle", "NewDescription");
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(USER_1));
+        when(userRepository.findIdByUsername(anyString())).thenReturn(Optional.of(1L));
         when(projectRepository.findById(1l)).thenReturn(Optional.ofNullable(PROJECT_1));
-        assertEquals(projectRequest.getTitle(), projectService.updateProjectById("placeholderJwt", 1L, projectRequest).getTitle());
-        assertEquals(projectRequest.getDescription(), projectService.updateProjectById("placeholderJwt", 1L, projectRequest).getDescription());
+        assertEquals(projectRequest.getTitle(), projectService.updateProjectById(PLACEHOLDER_JWT, 1L, projectRequest).getTitle());
+        assertEquals(projectRequest.getDescription(), projectService.updateProjectById(PLACEHOLDER_JWT, 1L, projectRequest).getDescription());
     }
 
     @Test
     void updateProjectByIdUserNameNotFoundTest() {
-        USER_1.setProjects(projectList);
+        when(projectRepository.existsByIdAndOwner_Id(1L, 1L)).thenReturn(true);
         ProjectRequest projectRequest = new ProjectRequest("NewTitle", "NewDescription");
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(USER_1));
+        when(userRepository.findIdByUsername(USER_1.getUsername())).thenReturn(Optional.of(1L));
         when(projectRepository.findById(1l)).thenReturn(Optional.ofNullable(PROJECT_1));
-        assertThrows(UsernameNotFoundException.class, () -> projectService.updateProjectById("placeholderJwt", 1L, projectRequest));
+        assertThrows(UsernameNotFoundException.class, () -> projectService.updateProjectById(UNKNOWN_USER_JWT, 1L, projectRequest));
     }
 
     @Test
     void updateProjectByIdProjectNotFoundTest() {
-        USER_1.setProjects(projectList);
+        when(projectRepository.existsByIdAndOwner_Id(1L, 1L)).thenReturn(true);
         ProjectRequest projectRequest = new ProjectRequest("NewTitle", "NewDescription");
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(USER_1));
-        assertThrows(NoSuchProjectException.class, () -> projectService.updateProjectById("placeholderJwt", 1L, projectRequest));
+        when(userRepository.findIdByUsername(anyString())).thenReturn(Optional.of(1L));
+        assertThrows(NoSuchProjectException.class, () -> projectService.updateProjectById(PLACEHOLDER_JWT, 1L, projectRequest));
 
     }
 
     @Test
     void updateProjectByIdAccessDeniedTest() {
-        USER_1.setProjects(projectList);
+        when(projectRepository.existsByIdAndOwner_Id(1L, 1L)).thenReturn(true);
         ProjectRequest projectRequest = new ProjectRequest("NewTitle", "NewDescription");
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(USER_1));
+        when(userRepository.findIdByUsername(anyString())).thenReturn(Optional.of(1L));
         when(projectRepository.findById(2l)).thenReturn(Optional.ofNullable(PROJECT_2));
-        assertThrows(AccessDeniedException.class, () -> projectService.updateProjectById("placeholderJwt", 2L, projectRequest));
+        assertThrows(AccessDeniedException.class, () -> projectService.updateProjectById(PLACEHOLDER_JWT, 2L, projectRequest));
     }
 
     @SneakyThrows
     @Test
     void deleteProjectByIdTest() {
-        USER_1.setProjects(projectList);
+        when(projectRepository.existsByIdAndOwner_Id(1L, 1L)).thenReturn(true);
         PROJECT_1.setTasks(tasks);
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(USER_1));
+        when(userRepository.findIdByUsername(anyString())).thenReturn(Optional.of(1L));
         when(projectRepository.findById(1l)).thenReturn(Optional.ofNullable(PROJECT_1));
-        assertEquals(PROJECT_1, projectService.deleteProjectById("placeholderJwt", 1l));
+        assertEquals(PROJECT_1, projectService.deleteProjectById(PLACEHOLDER_JWT, 1l));
+        //scores come down while the user_tasks links that find the owners are still there
+        InOrder inOrder = inOrder(scoreService, taskRepository);
+        inOrder.verify(scoreService).projectDeleted(1L);
+        inOrder.verify(taskRepository).deleteUserLinksByProjectId(1L);
+        verify(taskRepository).deleteByProjectId(1L);
+        verify(completionStatsService).projectDeleted(1L);
+        verify(taskRepository, never()).delete(any(Task.class));
+        verify(projectRepository).delete(1L);
     }
 
     @Test
     void deleteProjectByIdUserNameNotFoundTest() {
-        USER_1.setProjects(projectList);
+        when(projectRepository.existsByIdAndOwner_Id(1L, 1L)).thenReturn(true);
         PROJECT_1.setTasks(tasks);
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
         when(projectRepository.findById(1l)).thenReturn(Optional.ofNullable(PROJECT_1));
-        assertThrows(UsernameNotFoundException.class, () -> projectService.deleteProjectById("placeholderJwt", 1l));
+        assertThrows(UsernameNotFoundException.class, () -> projectService.deleteProjectById(PLACEHOLDER_JWT, 1l));
     }
 
     @Test
     void deleteProjectByIdProjectNotFoundTest() {
-        USER_1.setProjects(projectList);
+        when(projectRepository.existsByIdAndOwner_Id(1L, 1L)).thenReturn(true);
         PROJECT_1.setTasks(tasks);
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(USER_1));
-        ;
-        assertThrows(NoSuchProjectException.class, () -> projectService.deleteProjectById("placeholderJwt", 1l));
+        when(userRepository.findIdByUsername(anyString())).thenReturn(Optional.of(1L));
+        assertThrows(NoSuchProjectException.class, () -> projectService.deleteProjectById(PLACEHOLDER_JWT, 1l));
     }
 
 
     @Test
     void deleteProjectByIdAccessDeniedTest() {
-        USER_1.setProjects(projectList);
+        when(projectRepository.existsByIdAndOwner_Id(1L, 1L)).thenReturn(true);
         PROJECT_1.setTasks(tasks);
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(USER_1));
+        when(userRepository.findIdByUsername(anyString())).thenReturn(Optional.of(1L));
         when(projectRepository.findById(2l)).thenReturn(Optional.ofNullable(PROJECT_2));
-        assertThrows(AccessDeniedException.class, () -> projectService.deleteProjectById("placeholderJwt", 2l));
+        assertThrows(AccessDeniedException.class, () -> projectService.deleteProjectById(PLACEHOLDER_JWT, 2l));
+    }
+
+    @Test
+    @SneakyThrows
+    void setProjectPrioritiesTest() {
+        List<PriorityUpdate> updates = Arrays.asList(new PriorityUpdate(1L, 2), new PriorityUpdate(2L, 1));
+        when(projectRepository.countByOwner_IdAndIdIn(eq(1L), anyCollection())).thenReturn(2L);
+        Cache cache = mock(Cache.class);
+        when(entityManagerFactory.getCache()).thenReturn(cache);
+        PriorityUpdateResponse response = projectService.setProjectPriorities(CLAIMS_JWT, updates);
+        assertEquals(2, response.getUpdated());
+        verify(jdbcTemplate).batchUpdate(eq("update projects set priority = ? where id = ?"), eq(updates), eq(2), any());
+        verify(projectRepository, never()).save(any());
+        verify(cache).evict(Project.class, 1L);
+        verify(cache).evict(Project.class, 2L);
+    }
+
+    @Test
+    void setProjectPrioritiesAccessDeniedTest() {
+        List<PriorityUpdate> updates = Arrays.asList(new PriorityUpdate(1L, 2), new PriorityUpdate(2L, 1));
+        when(projectRepository.countByOwner_IdAndIdIn(eq(1L), anyCollection())).thenReturn(1L);
+        when(projectRepository.countByIdIn(anyCollection())).thenReturn(2L);
+        assertThrows(AccessDeniedException.class, () -> projectService.setProjectPriorities(CLAIMS_JWT, updates));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void setProjectPrioritiesProjectNotFoundTest() {
+        List<PriorityUpdate> updates = Arrays.asList(new PriorityUpdate(1L, 2), new PriorityUpdate(2L, 1));
+        when(projectRepository.countByOwner_IdAndIdIn(eq(1L), anyCollection())).thenReturn(1L);
+        when(projectRepository.countByIdIn(anyCollection())).thenReturn(1L);
+        assertThrows(NoSuchProjectException.class, () -> projectService.setProjectPriorities(CLAIMS_JWT, updates));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @SneakyThrows
+    @Test
+    void getProjectTasksTest() {
+        when(projectRepository.existsById(1L)).thenReturn(true);
+        when(projectRepository.existsByIdAndOwner_Id(1L, 1L)).thenReturn(true);
+        when(taskRepository.findCurrentByProjectId(1L, LocalDate.now().minusDays(1))).thenReturn(taskSummaries);
+        assertEquals(taskSummaries, projectService.getProjectTasks(CLAIMS_JWT, 1L));
+    }
+
+    @Test
+    void getProjectTasksProjectNotFoundTest() {
+        assertThrows(NoSuchProjectException.class, () -> projectService.getProjectTasks(CLAIMS_JWT, 1L));
+    }
+
+    @Test
+    void getProjectTasksAccessDeniedTest() {
+        when(projectRepository.existsById(1L)).thenReturn(true);
+        assertThrows(AccessDeniedException.class, () -> projectService.getProjectTasks(CLAIMS_JWT, 1L));
     }
-}
\ No newline at end of file
+}
@@ -1,19 +1,28 @@
 package com.lazy.todo.services;
 
 import com.lazy.todo.exceptions.AccessDeniedException;
+import com.lazy.todo.exceptions.InvalidCursorException;
 import com.lazy.todo.exceptions.NoSuchTaskException;
 import com.lazy.todo.models.Task;
 import com.lazy.todo.models.User;
+import com.lazy.todo.payload.request.PriorityUpdate;
 import com.lazy.todo.payload.request.TaskRequest;
+import com.lazy.todo.payload.response.PageResponse;
+import com.lazy.todo.payload.response.PriorityUpdateResponse;
+import com.lazy.todo.payload.response.TaskSummary;
 import com.lazy.todo.repository.TaskRepository;
 import com.lazy.todo.repository.UserRepository;
 import com.lazy.todo.security.jwt.JwtUtils;
+import com.lazy.todo.security.jwt.VerifiedJwt;
+import com.lazy.todo.security.services.UserIdResolver;
 import lombok.SneakyThrows;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.PropertySource;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.test.context.web.WebAppConfiguration;
 
@@ -23,10 +32,10 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
-import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.*;
 
 
-@WebMvcTest(TaskService.class)
+@WebMvcTest({TaskService.class, UserIdResolver.class})
 class TaskServiceUnitTest {
 
     @Autowired
@@ -44,147 +53,180 @@ class TaskServiceUnitTest {
     @MockBean
     EntityManager entityManager;
 
+    @MockBean
+    JdbcTemplate jdbcTemplate;
+
+    @MockBean
+    ScoreService scoreService;
+
+    @MockBean
+    CompletionStatsService completionStatsService;
+
     Task TASK_1 = new Task(LocalDate.now(), LocalDate.now(), false, "title1", "description1");
     Task TASK_2 = new Task(LocalDate.now(), LocalDate.now(), false, "title2", "description2");
+
+    TaskSummary SUMMARY_1 = new TaskSummary(4L, "title1", "description1", null, null, null, null, 2, 0);
+
+    TaskSummary SUMMARY_2 = new TaskSummary(5L, "title2", "description2", null, null, null, null, 3, 0);
     Task TASK_3 = new Task(LocalDate.now(), LocalDate.now(), false, "title3", "description3");
 
     User USER_1 = new User("testUserName1", "test@test.co.uk", "testPassword1");
     User USER_2 = new User("testUserName2", "test@test.com", "testPassword2");
 
+    VerifiedJwt PLACEHOLDER_JWT = new VerifiedJwt("placeholderJwt", USER_1.getUsername(), new Date(), new Date());
+
+    VerifiedJwt UNKNOWN_USER_JWT = new VerifiedJwt("placeholderJwt", "unknownUserName", new Date(), new Date());
+
 
     @Test
     void saveNewTask() {
         TaskRequest taskRequest = new TaskRequest("newTitle1", "newDescription1");
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
 
 
         when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(USER_1));
         when(taskRepository.save(any())).thenReturn(new Task(taskRequest.getTitle(), taskRequest.getDescription()));
 
-        assertEquals(taskRequest.getTitle(),taskService.saveNewTask("placeholderJwt", taskRequest).getTitle());
-        assertEquals(taskRequest.getDescription(),taskService.saveNewTask("placeholderJwt", taskRequest).getDescription());
+        assertEquals(taskRequest.getTitle(),taskService.saveNewTask(PLACEHOLDER_JWT, taskRequest).getTitle());
+        assertEquals(taskRequest.getDescription(),taskService.saveNewTask(PLACEHOLDER_JWT, taskRequest).getDescription());
     }
 
     @SneakyThrows
     @Test
     void getTaskByIdTest() {
-        USER_1.getTasks().add(TASK_1);
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(USER_1));
+        when(taskRepository.existsByUserIdAndTaskId(1L, 1L)).thenReturn(true);
+        when(userRepository.findIdByUsername(anyString())).thenReturn(Optional.of(1L));
         when(taskRepository.findById((Long) any())).thenReturn(Optional.ofNullable(TASK_1));
-        assertEquals(TASK_1,taskService.getTaskById("placeholderJwt", 1l));
+        assertEquals(TASK_1,taskService.getTaskById(PLACEHOLDER_JWT, 1l));
     }
     @SneakyThrows
     @Test
     void getTaskByIdTaskNotOwnedTest() {
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(USER_1));
+        when(userRepository.findIdByUsername(anyString())).thenReturn(Optional.of(1L));
         when(taskRepository.findById((Long) any())).thenReturn(Optional.ofNullable(TASK_1));
-        assertThrows(AccessDeniedException.class, ()-> taskService.getTaskById("placeholderJwt", 1l));
+        assertThrows(AccessDeniedException.class, ()-> taskService.getTaskById(PLACEHOLDER_JWT, 1l));
     }
 
     @Test
     void getTaskByIdUserNotPresentTest() {
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
         when(taskRepository.findById((Long) any())).thenReturn(Optional.ofNullable(TASK_1));
-        assertThrows(UsernameNotFoundException.class, ()-> taskService.getTaskById("placeholderJwt", 1l));
+        assertThrows(UsernameNotFoundException.class, ()-> taskService.getTaskById(PLACEHOLDER_JWT, 1l));
     }
 
     @Test
     void getTaskByIdTaskNotPresentest() {
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(USER_1));
-        assertThrows(NoSuchTaskException.class, ()-> taskService.getTaskById("placeholderJwt", 1l));
+        when(userRepository.findIdByUsername(anyString())).thenReturn(Optional.of(1L));
+        assertThrows(NoSuchTaskException.class, ()-> taskService.getTaskById(PLACEHOLDER_JWT, 1l));
     }
 
+    @SneakyThrows
     @Test
     void getAllTasksTest() {
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
-        when(userRepository.findByUsername(anyString())).thenReturn(Optional.of(USER_1));
-        USER_1.getTasks().add(TASK_1);
-        USER_1.getTasks().add(TASK_2);
-        List<Task> tasks = new ArrayList<>(Arrays.asList(TASK_1, TASK_2));
-        assertEquals(tasks, taskService.getAllTasks("placeholderJwt"));
+        when(userRepository.findIdByUsername(anyString())).thenReturn(Optional.of(1L));
+        List<TaskSummary> tasks = new ArrayList<>(Arrays.asList(SUMMARY_1, SUMMARY_2));
+        when(taskRepository.findPageByUserId(1L, Integer.MIN_VALUE, 0L, PageRequest.of(0, 51))).thenReturn(tasks);
+        PageResponse<TaskSummary> page = taskService.getAllTasks(PLACEHOLDER_JWT, null, null);
+        assertEquals(tasks, page.getItems());
+        assertNull(page.getNextCursor());
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllTasksNextPageTest() {
+        when(userRepository.findIdByUsername(anyString())).thenReturn(Optional.of(1L));
+        //one row more than the page size means there is a next page, starting after the last row returned
+        when(taskRepository.findPageByUserId(1L, Integer.MIN_VALUE, 0L, PageRequest.of(0, 2)))
+                .thenReturn(new ArrayList<>(Arrays.asList(SUMMARY_1, SUMMARY_2)));
+        PageResponse<TaskSummary> page = taskService.getAllTasks(PLACEHOLDER_JWT, null, 1);
+        assertEquals(Arrays.asList(SUMMARY_1), page.getItems());
+        when(taskRepository.findPageByUserId(1L, 2, 4L, PageRequest.of(0, 2)))
+                .thenReturn(new ArrayList<>(Arrays.asList(SUMMARY_2)));
+        assertEquals(Arrays.asList(SUMMARY_2), taskService.getAllTasks(PLACEHOLDER_JWT, page.getNextCursor(), 1).getItems());
+    }
+
+    @SneakyThrows
+    @Test
+    void getAllTasksPageSizeCapTest() {
+        when(userRepository.findIdByUsername(anyString())).thenReturn(Optional.of(1L));
+        taskService.getAllTasks(PLACEHOLDER_JWT, null, 100000);
+        verify(taskRepository).findPageByUserId(1L, Integer.MIN_VALUE, 0L, PageRequest.of(0, 201));
+    }
+
+    @Test
+    void getAllTasksInvalidCursorTest() {
+        when(userRepository.findIdByUsername(anyString())).thenReturn(Optional.of(1L));
+        assertThrows(InvalidCursorException.class, () -> taskService.getAllTasks(PLACEHOLDER_JWT, "notACursor", null));
     }
 
     @Test
     void getAllTasksUserNameNotFoundTest() {
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
-        assertThrows(UsernameNotFoundException.class, () -> taskService.getAllTasks("placeholderJwt"));
+        assertThrows(UsernameNotFoundException.class, () -> taskService.getAllTasks(PLACEHOLDER_JWT, null, null));
     }
 
     @SneakyThrows
     @Test
     void getTaskUsers() {
         TASK_1.getUsers().add(USER_1);
-        USER_1.getTasks().add(TASK_1);
+        when(taskRepository.existsByUserIdAndTaskId(1L, 1L)).thenReturn(true);
         Set<String> users = new HashSet<>(Arrays.asList(USER_1.getUsername()));
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
-        when(userRepository.findByUsername(USER_1.getUsername())).thenReturn(Optional.of(USER_1));
+        when(userRepository.findIdByUsername(USER_1.getUsername())).thenReturn(Optional.of(1L));
         when(taskRepository.findById(1L)).thenReturn(Optional.ofNullable(TASK_1));
-        assertEquals(users, taskService.getTaskUsers("placeholderJwt", 1L));
+        assertEquals(users, taskService.getTaskUsers(PLACEHOLDER_JWT, 1L));
     }
 
     @SneakyThrows
     @Test
     void getTaskUsersUserNotFound() {
         TASK_1.getUsers().add(USER_1);
-        USER_1.getTasks().add(TASK_1);
+        when(taskRepository.existsByUserIdAndTaskId(1L, 1L)).thenReturn(true);
         Set<String> users = new HashSet<>(Arrays.asList(USER_1.getUsername()));
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
         when(taskRepository.findById(1L)).thenReturn(Optional.ofNullable(TASK_1));
-        assertThrows(UsernameNotFoundException.class, () -> taskService.getTaskUsers("placeholderJwt", 1L));
+        assertThrows(UsernameNotFoundException.class, () -> taskService.getTaskUsers(PLACEHOLDER_JWT, 1L));
     }
 
     @SneakyThrows
     @Test
     void getTaskUsersTaskNotFound() {
         TASK_1.getUsers().add(USER_1);
-        USER_1.getTasks().add(TASK_1);
+        when(taskRepository.existsByUserIdAndTaskId(1L, 1L)).thenReturn(true);
         Set<String> users = new HashSet<>(Arrays.asList(USER_1.getUsername()));
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
-        when(userRepository.findByUsername(USER_1.getUsername())).thenReturn(Optional.of(USER_1));
-        assertThrows(NoSuchTaskException.class, () -> taskService.getTaskUsers("placeholderJwt", 1L));
+        when(userRepository.findIdByUsername(USER_1.getUsername())).thenReturn(Optional.of(1L));
+        assertThrows(NoSuchTaskException.class, () -> taskService.getTaskUsers(PLACEHOLDER_JWT, 1L));
     }
 
     @Test
     void getTaskUsersAccessDenied() {
         TASK_1.getUsers().add(USER_1);
         Set<String> users = new HashSet<>(Arrays.asList(USER_1.getUsername()));
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
-        when(userRepository.findByUsername(USER_1.getUsername())).thenReturn(Optional.of(USER_1));
+        when(userRepository.findIdByUsername(USER_1.getUsername())).thenReturn(Optional.of(1L));
         when(taskRepository.findById(1L)).thenReturn(Optional.ofNullable(TASK_1));
-        assertThrows(AccessDeniedException.class, ()-> taskService.getTaskUsers("placeholderJwt", 1L));
+        assertThrows(AccessDeniedException.class, ()-> taskService.getTaskUsers(PLACEHOLDER_JWT, 1L));
     }
 
     @SneakyThrows
     @Test
     void updateTaskByIdTest() {
         TaskRequest taskRequest = new TaskRequest("changedTitle", "changedDescription");
-        USER_1.getTasks().add(TASK_1);
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
-        when(userRepository.findByUsername(USER_1.getUsername())).thenReturn(Optional.ofNullable(USER_1));
+        when(taskRepository.existsByUserIdAndTaskId(1L, 1L)).thenReturn(true);
+        when(userRepository.findIdByUsername(USER_1.getUsername())).thenReturn(Optional.of(1L));
         when(taskRepository.findById(1L)).thenReturn(Optional.ofNullable(TASK_1));
-        assertEquals("changedTitle", taskService.updateTaskById("placeholderJwt", 1L, taskRequest).getTitle());
-        assertEquals("changedDescription", taskService.updateTaskById("placeholderJwt", 1L, taskRequest).getDescription());
+        assertEquals("changedTitle", taskService.updateTaskById(PLACEHOLDER_JWT, 1L, taskRequest).getTitle());
+        assertEquals("changedDescription", taskService.updateTaskById(PLACEHOLDER_JWT, 1L, taskRequest).getDescription());
     }
 
     @Test
     void updateTaskByIdUserNotFoundTest() {
         TaskRequest taskRequest = new TaskRequest("changedTitle", "changedDescription");
-        USER_1.getTasks().add(TASK_1);
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
+        when(taskRepository.existsByUserIdAndTaskId(1L, 1L)).thenReturn(true);
         when(taskRepository.findById(1L)).thenReturn(Optional.ofNullable(TASK_1));
-        assertThrows(UsernameNotFoundException.class, () -> taskService.updateTaskById("placeholderJwt", 1L, taskRequest));
+        assertThrows(UsernameNotFoundException.class, () -> taskService.updateTaskById(PLACEHOLDER_JWT, 1L, taskRequest));
     }
 
     @Test
     void updateTaskByIdTaskNotFoundTest() {
         TaskRequest taskRequest = new TaskRequest("changedTitle", "changedDescription");
-        USER_1.getTasks().add(TASK_1);
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
-        when(userRepository.findByUsername(USER_1.getUsername())).thenReturn(Optional.of(USER_1));
-        assertThrows(NoSuchTaskException.class, () -> taskService.updateTaskById("placeholderJwt", 1L, taskRequest));
+        when(taskRepository.existsByUserIdAndTaskId(1L, 1L)).thenReturn(true);
+        when(userRepository.findIdByUsername(USER_1.getUsername())).thenReturn(Optional.of(1L));
+        assertThrows(NoSuchTaskException.class, () -> taskService.updateTaskById(PLACEHOLDER_JWT, 1L, taskRequest));
     }
 
 
@@ -192,50 +234,131 @@ class TaskServiceUnitTest {
     @Test
     void updateTaskByIdAccessDeniedTest() {
         TaskRequest taskRequest = new TaskRequest("changedTitle", "changedDescription");
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
-        when(userRepository.findByUsername(USER_1.getUsername())).thenReturn(Optional.of(USER_1));
+        when(userRepository.findIdByUsername(USER_1.getUsername())).thenReturn(Optional.of(1L));
         when(taskRepository.findById(1L)).thenReturn(Optional.ofNullable(TASK_1));
-        assertThrows(AccessDeniedException.class, () -> taskService.updateTaskById("placeholderJwt", 1L, taskRequest));
+        assertThrows(AccessDeniedException.class, () -> taskService.updateTaskById(PLACEHOLDER_JWT, 1L, taskRequest));
     }
 
     @SneakyThrows
     @Test
     void deleteTaskByIdTest() {
         USER_1.getTasks().add(TASK_1);
+        when(taskRepository.existsByUserIdAndTaskId(1L, 1L)).thenReturn(true);
         TASK_1.getUsers().add(USER_1);
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
-        when(userRepository.findByUsername(USER_1.getUsername())).thenReturn(Optional.of(USER_1));
+        when(userRepository.findIdByUsername(USER_1.getUsername())).thenReturn(Optional.of(1L));
         when(taskRepository.findById(1L)).thenReturn(Optional.ofNullable(TASK_1));
-        assertFalse(USER_1.getTasks().contains(taskService.deleteTaskById("placeholderJwt", 1L)));
-        assertFalse(USER_1.getTasks().contains(TASK_1));
+        assertEquals(TASK_1, taskService.deleteTaskById(PLACEHOLDER_JWT, 1L));
+        //the co-owners are unlinked in bulk, none of them is loaded or saved
+        verify(taskRepository).deleteUserLinksByTaskId(1L);
+        verify(taskRepository).delete(1L);
+        verify(userRepository, never()).save(any());
+    }
+
+    @SneakyThrows
+    @Test
+    void completeTaskAddsToScoreTest() {
+        when(userRepository.findIdByUsername(USER_1.getUsername())).thenReturn(Optional.of(1L));
+        when(taskRepository.existsByUserIdAndTaskId(1L, 1L)).thenReturn(true);
+        Task open = new Task(LocalDate.now(), LocalDate.now(), null, "open", "description");
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(open));
+        when(taskRepository.save(open)).thenReturn(open);
+        taskService.completeTask(PLACEHOLDER_JWT, 1L);
+        verify(scoreService).taskChanged(1L, false, true);
+        verify(completionStatsService).taskChanged(1L, null, LocalDate.now());
+        //uncompleting it takes the point away again
+        taskService.unCompleteTask(PLACEHOLDER_JWT, 1L);
+        verify(scoreService).taskChanged(1L, true, false);
+        verify(completionStatsService).taskChanged(1L, LocalDate.now(), null);
+    }
+
+    @SneakyThrows
+    @Test
+    void completeTaskCompletedLongAgoTest() {
+        when(userRepository.findIdByUsername(USER_1.getUsername())).thenReturn(Optional.of(1L));
+        when(taskRepository.existsByUserIdAndTaskId(1L, 1L)).thenReturn(true);
+        Task old = new Task(LocalDate.now(), LocalDate.now(), true, "old", "description");
+        old.setCompletedOn(LocalDate.now().minusYears(2));
+        when(taskRepository.findById(1L)).thenReturn(Optional.of(old));
+        taskService.unCompleteTask(PLACEHOLDER_JWT, 1L);
+        //it had already dropped out of the score
+        verify(scoreService).taskChanged(1L, false, false);
+        //it stays in the stats for the day it was completed on
+        verify(completionStatsService).taskChanged(1L, LocalDate.now().minusYears(2), null);
+        taskService.completeTask(PLACEHOLDER_JWT, 1L);
+        verify(scoreService).taskChanged(1L, false, true);
     }
 
     @Test
     void deleteTaskByIdUserNotFoundTest() {
-        USER_1.getTasks().add(TASK_1);
+        when(taskRepository.existsByUserIdAndTaskId(1L, 1L)).thenReturn(true);
         TASK_1.getUsers().add(USER_1);
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
         when(taskRepository.findById(1L)).thenReturn(Optional.ofNullable(TASK_1));
-        assertThrows(UsernameNotFoundException.class, () -> taskService.deleteTaskById("placeholderJwt", 1L));
+        assertThrows(UsernameNotFoundException.class, () -> taskService.deleteTaskById(PLACEHOLDER_JWT, 1L));
 
     }
 
     @Test
     void deleteTaskByIdTaskNotFoundTest() {
-        USER_1.getTasks().add(TASK_1);
+        when(taskRepository.existsByUserIdAndTaskId(1L, 1L)).thenReturn(true);
         TASK_1.getUsers().add(USER_1);
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
-        when(userRepository.findByUsername(USER_1.getUsername())).thenReturn(Optional.of(USER_1));
-        assertThrows(NoSuchTaskException.class, () -> taskService.deleteTaskById("placeholderJwt", 1L));
+        when(userRepository.findIdByUsername(USER_1.getUsername())).thenReturn(Optional.of(1L));
+        assertThrows(NoSuchTaskException.class, () -> taskService.deleteTaskById(PLACEHOLDER_JWT, 1L));
     }
 
     @Test
     void deleteTaskByIdAccessDeniedTest() {
         TASK_1.getUsers().add(USER_1);
-        when(jwtUtils.getUserNameFromJwtToken("placeholderJwt")).thenReturn(USER_1.getUsername());
-        when(userRepository.findByUsername(USER_1.getUsername())).thenReturn(Optional.of(USER_1));
+        when(userRepository.findIdByUsername(USER_1.getUsername())).thenReturn(Optional.of(1L));
         when(taskRepository.findById(1L)).thenReturn(Optional.ofNullable(TASK_1));
-        assertThrows(AccessDeniedException.class, () -> taskService.deleteTaskById("placeholderJwt", 1L));
+        assertThrows(AccessDeniedException.class, () -> taskService.deleteTaskById(PLACEHOLDER_JWT, 1L));
     }
 
-}
\ No newline at end of file
+    @SneakyThrows
+    @Test
+    void setTaskPrioritiesTest() {
+        List<PriorityUpdate> updates = Arrays.asList(new PriorityUpdate(1L, 2), new PriorityUpdate(2L, 1));
+        when(userRepository.findIdByUsername(anyString())).thenReturn(Optional.of(1L));
+        when(taskRepository.countOwnedByUserId(eq(1L), anyCollection())).thenReturn(2L);
+        PriorityUpdateResponse response = taskService.setTaskPriorities(PLACEHOLDER_JWT, updates);
+        assertEquals(2, response.getUpdated());
+        assertEquals(Arrays.asList(1L, 2L), new ArrayList<>(response.getIds()));
+        //one batch for the whole list, no per-task loads or saves
+        verify(jdbcTemplate).batchUpdate(eq("update tasks set priority = ? where id = ?"), eq(updates), eq(2), any());
+        verify(taskRepository, never()).findAllById(any());
+        verify(taskRepository, never()).save(any());
+    }
+
+    @Test
+    void setTaskPrioritiesAccessDeniedTest() {
+        List<PriorityUpdate> updates = Arrays.asList(new PriorityUpdate(1L, 2), new PriorityUpdate(2L, 1));
+        when(userRepository.findIdByUsername(anyString())).thenReturn(Optional.of(1L));
+        when(taskRepository.countOwnedByUserId(eq(1L), anyCollection())).thenReturn(1L);
+        when(taskRepository.countByIdIn(anyCollection())).thenReturn(2L);
+        assertThrows(AccessDeniedException.class, () -> taskService.setTaskPriorities(PLACEHOLDER_JWT, updates));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void setTaskPrioritiesTaskNotFoundTest() {
+        List<PriorityUpdate> updates = Arrays.asList(new PriorityUpdate(1L, 2), new PriorityUpdate(2L, 1));
+        when(userRepository.findIdByUsername(anyString())).thenReturn(Optional.of(1L));
+        when(taskRepository.countOwnedByUserId(eq(1L), anyCollection())).thenReturn(1L);
+        when(taskRepository.countByIdIn(anyCollection())).thenReturn(1L);
+        assertThrows(NoSuchTaskException.class, () -> taskService.setTaskPriorities(PLACEHOLDER_JWT, updates));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+
+    @SneakyThrows
+    @Test
+    void setTaskProjectPrioritiesTest() {
+        List<PriorityUpdate> updates = Arrays.asList(new PriorityUpdate(1L, 2), new PriorityUpdate(2L, 1));
+        when(userRepository.findIdByUsername(anyString())).thenReturn(Optional.of(1L));
+        when(taskRepository.countOwnedByUserId(eq(1L), anyCollection())).thenReturn(2L);
+        PriorityUpdateResponse response = taskService.setTaskProjectPriorities(PLACEHOLDER_JWT, updates);
+        assertEquals(2, response.getUpdated());
+        assertEquals(Arrays.asList(1L, 2L), new ArrayList<>(response.getIds()));
+        verify(jdbcTemplate).batchUpdate(eq("update tasks set project_priority = ? where id = ?"), eq(updates), eq(2), any());
+        verify(taskRepository, never()).findAllById(any());
+    }
+}